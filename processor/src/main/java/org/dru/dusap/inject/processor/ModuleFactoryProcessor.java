@@ -0,0 +1,325 @@
+package org.dru.dusap.inject.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.*;
+
+// generates a ModuleFactory per module so the injector can skip scanning the module with reflection.
+// modules whose members the generated class cannot reach (private types, members or constructors) are skipped
+// and keep being configured with reflection.
+@SupportedAnnotationTypes({
+        ModuleFactoryProcessor.PROVIDES,
+        ModuleFactoryProcessor.DEPENDS_ON,
+        ModuleFactoryProcessor.INJECT
+})
+public final class ModuleFactoryProcessor extends AbstractProcessor {
+    static final String PROVIDES = "org.dru.dusap.inject.Provides";
+    static final String DEPENDS_ON = "org.dru.dusap.inject.DependsOn";
+    static final String INJECT = "javax.inject.Inject";
+    private static final String MODULE = "org.dru.dusap.inject.Module";
+    private static final String SUFFIX = "_ModuleFactory";
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        final TypeElement moduleElement = processingEnv.getElementUtils().getTypeElement(MODULE);
+        if (moduleElement == null) {
+            return false;
+        }
+        final Set<TypeElement> moduleTypes = new LinkedHashSet<>();
+        for (final TypeElement annotation : annotations) {
+            for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                final Element type = (element.getKind().isClass() ? element : element.getEnclosingElement());
+                if (type.getKind() == ElementKind.CLASS && processingEnv.getTypeUtils().isAssignable(
+                        processingEnv.getTypeUtils().erasure(type.asType()), moduleElement.asType())) {
+                    moduleTypes.add((TypeElement) type);
+                }
+            }
+        }
+        for (final TypeElement moduleType : moduleTypes) {
+            if (generated.add(moduleType.getQualifiedName().toString())) {
+                generate(moduleType);
+            }
+        }
+        return false;
+    }
+
+    private void generate(final TypeElement moduleType) {
+        final String skipReason = getSkipReason(moduleType);
+        if (skipReason != null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "no module factory generated, " + skipReason, moduleType);
+            return;
+        }
+        final String packageName = getPackage(moduleType).getQualifiedName().toString();
+        final String factoryName = getFlatName(moduleType) + SUFFIX;
+        final String moduleName = moduleType.getQualifiedName().toString();
+        final List<ExecutableElement> providerMethods = getProviderMethods(moduleType);
+        try {
+            final JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                    (packageName.isEmpty() ? "" : packageName + ".") + factoryName, moduleType);
+            try (Writer writer = file.openWriter(); PrintWriter out = new PrintWriter(writer)) {
+                if (!packageName.isEmpty()) {
+                    out.println("package " + packageName + ";");
+                    out.println();
+                }
+                out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+                out.println("public final class " + factoryName + " implements org.dru.dusap.inject.ModuleFactory {");
+                out.println("    private static final java.util.List<Class<? extends org.dru.dusap.inject.Module>>"
+                        + " DEPENDENCY_TYPES = java.util.Collections.unmodifiableList(java.util.Arrays.asList(");
+                out.println(String.join(",\n", getDependencyLiterals(moduleType)) + "));");
+                out.println();
+                out.println("    @Override");
+                out.println("    public java.util.List<Class<? extends org.dru.dusap.inject.Module>>"
+                        + " getDependencyTypes() {");
+                out.println("        return DEPENDENCY_TYPES;");
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public org.dru.dusap.inject.Module newModule() {");
+                out.println("        return new " + moduleName + "();");
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public java.util.List<java.lang.reflect.Method> getProviderMethods() {");
+                if (providerMethods.isEmpty()) {
+                    out.println("        return java.util.Collections.emptyList();");
+                } else {
+                    printProviderMethodLookups(out, providerMethods);
+                }
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public java.util.List<org.dru.dusap.inject.Invoker> getProviderInvokers() {");
+                out.println("        return java.util.Arrays.<org.dru.dusap.inject.Invoker>asList(");
+                final List<String> invokers = new ArrayList<>();
+                for (final ExecutableElement method : providerMethods) {
+                    final StringBuilder call = new StringBuilder("((").append(moduleName).append(") target).")
+                            .append(method.getSimpleName()).append('(');
+                    final List<? extends VariableElement> parameters = method.getParameters();
+                    for (int index = 0; index < parameters.size(); index++) {
+                        call.append(index > 0 ? ", " : "").append('(').append(getCastType(parameters.get(index)
+                                .asType())).append(") args[").append(index).append(']');
+                    }
+                    call.append(')');
+                    invokers.add(getInvoker(moduleName, method, call.toString()));
+                }
+                out.println(String.join(",\n", invokers) + ");");
+                out.println("    }");
+                out.println("}");
+            }
+        } catch (final IOException exc) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "failed to generate module factory: " + exc.getMessage(), moduleType);
+        }
+    }
+
+    // unchecked exceptions pass through and checked ones are wrapped in an InjectionException, as in Invokers.
+    private static String getInvoker(final String moduleName, final ExecutableElement method, final String call) {
+        final boolean isVoid = (method.getReturnType().getKind() == TypeKind.VOID);
+        if (method.getThrownTypes().isEmpty()) {
+            return "                (target, args) -> " + (isVoid ? "{ " + call + "; return null; }" : call);
+        }
+        return "                (target, args) -> {\n"
+                + "                    try {\n"
+                + (isVoid ? "                        " + call + ";\n                        return null;\n"
+                : "                        return " + call + ";\n")
+                + "                    } catch (final RuntimeException | Error exc) {\n"
+                + "                        throw exc;\n"
+                + "                    } catch (final Throwable exc) {\n"
+                + "                        throw new org.dru.dusap.inject.InjectionException(\n"
+                + "                                \"failed to invoke method: %s\", exc, \"" + moduleName + "."
+                + method.getSimpleName() + "\");\n"
+                + "                    }\n"
+                + "                }";
+    }
+
+    private void printProviderMethodLookups(final PrintWriter out, final List<ExecutableElement> providerMethods) {
+        out.println("        try {");
+        out.println("            return java.util.Arrays.<java.lang.reflect.Method>asList(");
+        final List<String> lookups = new ArrayList<>();
+        for (final ExecutableElement method : providerMethods) {
+            final StringBuilder lookup = new StringBuilder("                    ")
+                    .append(getClassLiteral(method.getEnclosingElement().asType()))
+                    .append(".getDeclaredMethod(\"").append(method.getSimpleName()).append('"');
+            for (final VariableElement parameter : method.getParameters()) {
+                lookup.append(", ").append(getClassLiteral(parameter.asType()));
+            }
+            lookups.add(lookup.append(')').toString());
+        }
+        out.println(String.join(",\n", lookups) + ");");
+        out.println("        } catch (final NoSuchMethodException exc) {");
+        out.println("            throw new IllegalStateException(\"stale module factory: \" + exc.getMessage());");
+        out.println("        }");
+    }
+
+    private String getSkipReason(final TypeElement moduleType) {
+        if (moduleType.getModifiers().contains(Modifier.ABSTRACT)) {
+            return "abstract module";
+        }
+        if (moduleType.getNestingKind() == NestingKind.MEMBER && !moduleType.getModifiers().contains(Modifier.STATIC)) {
+            return "inner module";
+        }
+        if (moduleType.getNestingKind() == NestingKind.LOCAL || moduleType.getNestingKind() == NestingKind.ANONYMOUS) {
+            return "local module";
+        }
+        if (!isAccessible(moduleType.asType(), moduleType)) {
+            return "private module";
+        }
+        final List<ExecutableElement> constructors = ElementFilter.constructorsIn(moduleType.getEnclosedElements());
+        if (constructors.stream().noneMatch((constructor) -> constructor.getParameters().isEmpty()
+                && !constructor.getModifiers().contains(Modifier.PRIVATE))) {
+            return "no accessible no-argument constructor";
+        }
+        for (final TypeMirror dependency : getDependencyTypes(moduleType)) {
+            if (!isAccessible(dependency, moduleType)) {
+                return "private dependency " + dependency;
+            }
+        }
+        for (final ExecutableElement method : getProviderMethods(moduleType)) {
+            final Set<Modifier> modifiers = method.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC) || !modifiers
+                    .contains(Modifier.PUBLIC) && !getPackage(method).equals(getPackage(moduleType))) {
+                return "inaccessible provider method " + method;
+            }
+            if (!isAccessible(method.getEnclosingElement().asType(), moduleType)) {
+                return "inaccessible provider method " + method;
+            }
+            for (final VariableElement parameter : method.getParameters()) {
+                if (!isAccessible(parameter.asType(), moduleType)) {
+                    return "inaccessible parameter type of " + method;
+                }
+            }
+        }
+        return null;
+    }
+
+    // provider methods of the module hierarchy, super classes first, in declaration order.
+    private List<ExecutableElement> getProviderMethods(final TypeElement moduleType) {
+        final Deque<TypeElement> hierarchy = new ArrayDeque<>();
+        TypeElement current = moduleType;
+        while (current != null) {
+            hierarchy.push(current);
+            final TypeMirror superclass = current.getSuperclass();
+            current = (superclass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superclass).asElement() : null);
+        }
+        final List<ExecutableElement> result = new ArrayList<>();
+        for (final TypeElement type : hierarchy) {
+            for (final ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                if (hasAnnotation(method, PROVIDES)) {
+                    result.add(method);
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<TypeMirror> getDependencyTypes(final TypeElement moduleType) {
+        final List<TypeMirror> result = new ArrayList<>();
+        for (final AnnotationMirror annotation : moduleType.getAnnotationMirrors()) {
+            if (getQualifiedName(annotation).equals(DEPENDS_ON)) {
+                for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                        : annotation.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("value")) {
+                        final Object value = entry.getValue().getValue();
+                        if (value instanceof List) {
+                            for (final Object item : (List<?>) value) {
+                                result.add((TypeMirror) ((AnnotationValue) item).getValue());
+                            }
+                        } else {
+                            result.add((TypeMirror) value);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<String> getDependencyLiterals(final TypeElement moduleType) {
+        final List<String> result = new ArrayList<>();
+        for (final TypeMirror dependency : getDependencyTypes(moduleType)) {
+            result.add("            " + getClassLiteral(dependency));
+        }
+        return result;
+    }
+
+    private boolean isAccessible(final TypeMirror type, final TypeElement from) {
+        final TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+        if (erasure.getKind() == TypeKind.ARRAY) {
+            return isAccessible(((javax.lang.model.type.ArrayType) erasure).getComponentType(), from);
+        }
+        if (erasure.getKind() != TypeKind.DECLARED) {
+            return erasure.getKind().isPrimitive();
+        }
+        Element element = ((DeclaredType) erasure).asElement();
+        final boolean samePackage = getPackage(element).equals(getPackage(from));
+        while (element instanceof TypeElement) {
+            final Set<Modifier> modifiers = element.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || !samePackage && !modifiers.contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private String getClassLiteral(final TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString() + ".class";
+    }
+
+    private String getCastType(final TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) type)
+                    .getQualifiedName().toString();
+        }
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private static boolean hasAnnotation(final Element element, final String annotationType) {
+        return element.getAnnotationMirrors().stream()
+                .anyMatch((annotation) -> getQualifiedName(annotation).equals(annotationType));
+    }
+
+    private static String getQualifiedName(final AnnotationMirror annotation) {
+        return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private static PackageElement getPackage(final Element element) {
+        Element current = element;
+        while (!(current instanceof PackageElement)) {
+            current = current.getEnclosingElement();
+        }
+        return (PackageElement) current;
+    }
+
+    // nested type names joined with '_', matching the binary name with '$' replaced.
+    private static String getFlatName(final TypeElement type) {
+        final Deque<String> names = new ArrayDeque<>();
+        Element current = type;
+        while (current instanceof TypeElement) {
+            names.push(current.getSimpleName().toString());
+            current = current.getEnclosingElement();
+        }
+        return String.join("_", names);
+    }
+}
@@ -0,0 +1,98 @@
+package org.dru.dusap.inject.processor;
+
+import org.dru.dusap.inject.InjectionException;
+import org.dru.dusap.inject.Module;
+import org.dru.dusap.inject.ModuleFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ModuleFactoryProcessorTest {
+    private static final String DEPENDENCY = "package fixture;\n"
+            + "public class DependencyModule implements org.dru.dusap.inject.Module {\n"
+            + "    @org.dru.dusap.inject.Provides\n"
+            + "    @org.dru.dusap.inject.Expose\n"
+            + "    String provideString() {\n"
+            + "        return \"value\";\n"
+            + "    }\n"
+            + "}\n";
+    private static final String THROWING = "package fixture;\n"
+            + "@org.dru.dusap.inject.DependsOn(DependencyModule.class)\n"
+            + "public class ThrowingModule implements org.dru.dusap.inject.Module {\n"
+            + "    @org.dru.dusap.inject.Provides\n"
+            + "    Integer provideInteger(final String value) throws java.io.IOException {\n"
+            + "        if (value.isEmpty()) {\n"
+            + "            throw new java.io.IOException(\"empty\");\n"
+            + "        }\n"
+            + "        return value.length();\n"
+            + "    }\n"
+            + "    @org.dru.dusap.inject.Provides\n"
+            + "    void provideNothing(final String value) throws InterruptedException {\n"
+            + "        if (value.isEmpty()) {\n"
+            + "            throw new IllegalStateException(\"empty\");\n"
+            + "        }\n"
+            + "    }\n"
+            + "}\n";
+
+    @Test
+    public void testCheckedExceptionsAreWrapped() throws Exception {
+        try (URLClassLoader loader = compile(Arrays.asList(source("fixture.DependencyModule", DEPENDENCY),
+                source("fixture.ThrowingModule", THROWING)))) {
+            final ModuleFactory factory = (ModuleFactory) loader.loadClass("fixture.ThrowingModule_ModuleFactory")
+                    .getConstructor().newInstance();
+            Assert.assertEquals(Collections.singletonList(loader.loadClass("fixture.DependencyModule")),
+                    factory.getDependencyTypes());
+            final Module module = factory.newModule();
+            Assert.assertEquals(5, factory.getProviderInvokers().get(0).invoke(module, new Object[]{"value"}));
+            Assert.assertNull(factory.getProviderInvokers().get(1).invoke(module, new Object[]{"value"}));
+            try {
+                factory.getProviderInvokers().get(0).invoke(module, new Object[]{""});
+                Assert.fail();
+            } catch (final InjectionException exc) {
+                Assert.assertTrue(exc.getMessage().startsWith("failed to invoke method"));
+                Assert.assertTrue(exc.getCause() instanceof IOException);
+            }
+            try {
+                factory.getProviderInvokers().get(1).invoke(module, new Object[]{""});
+                Assert.fail();
+            } catch (final IllegalStateException exc) {
+                // unchecked exceptions pass through unwrapped.
+            }
+        }
+    }
+
+    private static URLClassLoader compile(final List<JavaFileObject> sources) throws IOException {
+        final Path output = Files.createTempDirectory("module-factory-processor");
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d", output.toString(),
+                            "-s", output.toString()), null, sources);
+            task.setProcessors(Collections.singletonList(new ModuleFactoryProcessor()));
+            Assert.assertTrue(diagnostics.getDiagnostics().toString(), task.call());
+        }
+        return new URLClassLoader(new java.net.URL[]{output.toUri().toURL()},
+                ModuleFactoryProcessorTest.class.getClassLoader());
+    }
+
+    private static JavaFileObject source(final String name, final String content) {
+        return new SimpleJavaFileObject(URI.create("string:///" + name.replace('.', File.separatorChar)
+                + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+    }
+}
@@ -0,0 +1,341 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+// the modules and injected types shared by the benchmarks.
+public final class BenchmarkModules {
+    public static final List<Class<? extends Module>> LEAVES = Arrays.asList(
+            Leaf0.class, Leaf1.class, Leaf2.class, Leaf3.class,
+            Leaf4.class, Leaf5.class, Leaf6.class, Leaf7.class,
+            Leaf8.class, Leaf9.class, Leaf10.class, Leaf11.class,
+            Leaf12.class, Leaf13.class, Leaf14.class, Leaf15.class);
+
+    // the key of the first provider method declared by the module.
+    public static Key<?> getProvidedKey(final Class<?> moduleType) throws NoSuchMethodException {
+        for (final Method method : moduleType.getDeclaredMethods()) {
+            if (method.getAnnotation(Provides.class) != null) {
+                return Key.of(method.getGenericReturnType(), method);
+            }
+        }
+        throw new NoSuchMethodException("no provider method in " + moduleType.getName());
+    }
+
+    public static class ServiceModule implements Module {
+        @Provides
+        @Expose
+        @Singleton
+        public Repository provideRepository() {
+            return new Repository();
+        }
+
+        @Provides
+        @Expose
+        public Service provideService(final Repository repository) {
+            return new Service(repository);
+        }
+
+        @Provides
+        @Expose
+        @IntoSet
+        @Singleton
+        public Handler provideFirstHandler() {
+            return new Handler();
+        }
+
+        @Provides
+        @Expose
+        @IntoSet
+        @Singleton
+        public Handler provideSecondHandler() {
+            return new Handler();
+        }
+    }
+
+    @DependsOn(ServiceModule.class)
+    public static class ApplicationModule implements Module {
+        @Provides
+        public Service provideLocalService(@Source(ServiceModule.class) final Service service) {
+            return service;
+        }
+
+        @Provides
+        @IntoSet
+        @Singleton
+        public Handler provideLocalHandler() {
+            return new Handler();
+        }
+    }
+
+    public static class Repository {
+    }
+
+    public static class Handler {
+    }
+
+    public static class Service {
+        private final Repository repository;
+
+        public Service(final Repository repository) {
+            this.repository = repository;
+        }
+    }
+
+    // constructed by the injector, then injected through a field and a method.
+    public static class Controller {
+        @Inject
+        Repository repository;
+        Service service;
+
+        @Inject
+        public Controller() {
+        }
+
+        @Inject
+        void setService(final Service service) {
+            this.service = service;
+        }
+    }
+
+    public static class Chain0 implements Module {
+        @Provides
+        @Expose
+        @Named("0")
+        public Integer provide() {
+            return 0;
+        }
+    }
+
+    @DependsOn(Chain0.class)
+    public static class Chain1 implements Module {
+        @Provides
+        @Expose
+        @Named("1")
+        public Integer provide(@Named("0") final Integer previous) {
+            return previous + 1;
+        }
+    }
+
+    @DependsOn(Chain1.class)
+    public static class Chain2 implements Module {
+        @Provides
+        @Expose
+        @Named("2")
+        public Integer provide(@Named("1") final Integer previous) {
+            return previous + 1;
+        }
+    }
+
+    @DependsOn(Chain2.class)
+    public static class Chain3 implements Module {
+        @Provides
+        @Expose
+        @Named("3")
+        public Integer provide(@Named("2") final Integer previous) {
+            return previous + 1;
+        }
+    }
+
+    @DependsOn(Chain3.class)
+    public static class Chain4 implements Module {
+        @Provides
+        @Expose
+        @Named("4")
+        public Integer provide(@Named("3") final Integer previous) {
+            return previous + 1;
+        }
+    }
+
+    @DependsOn(Chain4.class)
+    public static class Chain5 implements Module {
+        @Provides
+        @Expose
+        @Named("5")
+        public Integer provide(@Named("4") final Integer previous) {
+            return previous + 1;
+        }
+    }
+
+    @DependsOn(Chain5.class)
+    public static class Chain6 implements Module {
+        @Provides
+        @Expose
+        @Named("6")
+        public Integer provide(@Named("5") final Integer previous) {
+            return previous + 1;
+        }
+    }
+
+    @DependsOn(Chain6.class)
+    public static class Chain7 implements Module {
+        @Provides
+        @Expose
+        @Named("7")
+        public Integer provide(@Named("6") final Integer previous) {
+            return previous + 1;
+        }
+    }
+
+    public static class FanOutBase implements Module {
+        @Provides
+        @Expose
+        public Integer provideBase() {
+            return 1;
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf0 implements Module {
+        @Provides
+        @Named("leaf0")
+        public String provide(final Integer base) {
+            return "leaf0";
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf1 implements Module {
+        @Provides
+        @Named("leaf1")
+        public String provide(final Integer base) {
+            return "leaf1";
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf2 implements Module {
+        @Provides
+        @Named("leaf2")
+        public String provide(final Integer base) {
+            return "leaf2";
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf3 implements Module {
+        @Provides
+        @Named("leaf3")
+        public String provide(final Integer base) {
+            return "leaf3";
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf4 implements Module {
+        @Provides
+        @Named("leaf4")
+        public String provide(final Integer base) {
+            return "leaf4";
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf5 implements Module {
+        @Provides
+        @Named("leaf5")
+        public String provide(final Integer base) {
+            return "leaf5";
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf6 implements Module {
+        @Provides
+        @Named("leaf6")
+        public String provide(final Integer base) {
+            return "leaf6";
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf7 implements Module {
+        @Provides
+        @Named("leaf7")
+        public String provide(final Integer base) {
+            return "leaf7";
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf8 implements Module {
+        @Provides
+        @Named("leaf8")
+        public String provide(final Integer base) {
+            return "leaf8";
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf9 implements Module {
+        @Provides
+        @Named("leaf9")
+        public String provide(final Integer base) {
+            return "leaf9";
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf10 implements Module {
+        @Provides
+        @Named("leaf10")
+        public String provide(final Integer base) {
+            return "leaf10";
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf11 implements Module {
+        @Provides
+        @Named("leaf11")
+        public String provide(final Integer base) {
+            return "leaf11";
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf12 implements Module {
+        @Provides
+        @Named("leaf12")
+        public String provide(final Integer base) {
+            return "leaf12";
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf13 implements Module {
+        @Provides
+        @Named("leaf13")
+        public String provide(final Integer base) {
+            return "leaf13";
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf14 implements Module {
+        @Provides
+        @Named("leaf14")
+        public String provide(final Integer base) {
+            return "leaf14";
+        }
+    }
+
+    @DependsOn(FanOutBase.class)
+    public static class Leaf15 implements Module {
+        @Provides
+        @Named("leaf15")
+        public String provide(final Integer base) {
+            return "leaf15";
+        }
+    }
+
+    private BenchmarkModules() throws InstantiationException {
+        throw new InstantiationException();
+    }
+}
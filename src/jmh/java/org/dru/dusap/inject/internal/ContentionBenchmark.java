@@ -0,0 +1,47 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.InjectionBuilder;
+import org.dru.dusap.inject.Injector;
+import org.dru.dusap.inject.Key;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.dru.dusap.inject.internal.BenchmarkModules.*;
+
+// one injector shared by all threads, compare with the single threaded InjectorBenchmark.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+UseParallelGC"})
+@Threads(8)
+@State(Scope.Benchmark)
+public class ContentionBenchmark {
+    private Injector injector;
+    private Key<Repository> singletonKey;
+    private Key<Service> unscopedKey;
+
+    @Setup
+    public void setUp() {
+        injector = InjectionBuilder.newInjector(ApplicationModule.class);
+        singletonKey = Key.of(Repository.class, null);
+        unscopedKey = Key.of(Service.class, null);
+    }
+
+    @Benchmark
+    public Object getInstanceSingleton() {
+        return injector.getInstance(singletonKey);
+    }
+
+    @Benchmark
+    public Object getInstanceUnscoped() {
+        return injector.getInstance(unscopedKey);
+    }
+
+    // configures a child injector per operation against the shared parent.
+    @Benchmark
+    public Object newChildInjector() {
+        return injector.newInjector(Chain0.class);
+    }
+}
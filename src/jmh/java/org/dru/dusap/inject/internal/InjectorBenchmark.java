@@ -0,0 +1,72 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.InjectionBuilder;
+import org.dru.dusap.inject.Injector;
+import org.dru.dusap.inject.Key;
+import org.dru.dusap.inject.Source;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.dru.dusap.inject.internal.BenchmarkModules.*;
+
+// steady state lookups, every key is resolved and cached by the setup.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+UseParallelGC"})
+@State(Scope.Benchmark)
+public class InjectorBenchmark {
+    @Source(ServiceModule.class)
+    private static Service sourced;
+    private static Set<Handler> handlers;
+
+    private Injector injector;
+    private Key<Repository> singletonKey;
+    private Key<Service> unscopedKey;
+    private Key<?> sourceKey;
+    private Key<?> multibindingKey;
+
+    @Setup
+    public void setUp() throws Exception {
+        injector = InjectionBuilder.newInjector(ApplicationModule.class);
+        singletonKey = Key.of(Repository.class, null);
+        unscopedKey = Key.of(Service.class, null);
+        sourceKey = Key.of(Service.class, InjectorBenchmark.class.getDeclaredField("sourced"));
+        multibindingKey = Key.of(InjectorBenchmark.class.getDeclaredField("handlers").getGenericType(), null);
+        getInstanceSingleton();
+        getInstanceUnscoped();
+        getInstanceSource();
+        getInstanceMultibinding();
+        newInstanceInjectMembers();
+    }
+
+    @Benchmark
+    public Object getInstanceSingleton() {
+        return injector.getInstance(singletonKey);
+    }
+
+    // the local unscoped binding delegating to the exposed one of the dependency.
+    @Benchmark
+    public Object getInstanceUnscoped() {
+        return injector.getInstance(unscopedKey);
+    }
+
+    @Benchmark
+    public Object getInstanceSource() {
+        return injector.getInstance(sourceKey);
+    }
+
+    // the set of the singleton handlers contributed by both modules, collected once.
+    @Benchmark
+    public Object getInstanceMultibinding() {
+        return injector.getInstance(multibindingKey);
+    }
+
+    @Benchmark
+    public Object newInstanceInjectMembers() {
+        return injector.newInstance(Controller.class, true);
+    }
+}
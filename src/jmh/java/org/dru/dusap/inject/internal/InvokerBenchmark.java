@@ -0,0 +1,88 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.InjectionUtils;
+import org.dru.dusap.inject.Invoker;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+UseParallelGC"})
+@State(Scope.Benchmark)
+public class InvokerBenchmark {
+    @Param({"REFLECTION", "METHOD_HANDLE"})
+    public Invokers invokers;
+
+    private Target target;
+    private Object[] args;
+    private Constructor<Target> constructor;
+    private Method method;
+    private Field field;
+    private Invoker constructorInvoker;
+    private Invoker methodInvoker;
+    private BiConsumer<Object, Object> fieldSetter;
+
+    @Setup
+    public void setUp() throws Exception {
+        target = new Target("a");
+        args = new Object[]{"b"};
+        constructor = Target.class.getDeclaredConstructor(String.class);
+        method = Target.class.getDeclaredMethod("concat", String.class);
+        field = Target.class.getDeclaredField("value");
+        constructorInvoker = invokers.getConstructorInvoker(constructor);
+        methodInvoker = invokers.getMethodInvoker(method);
+        fieldSetter = invokers.getFieldSetter(field);
+    }
+
+    @Benchmark
+    public Object newInstance() {
+        return constructorInvoker.invoke(null, args);
+    }
+
+    @Benchmark
+    public Object invokeMethod() {
+        return methodInvoker.invoke(target, args);
+    }
+
+    @Benchmark
+    public Object setField() {
+        fieldSetter.accept(target, "c");
+        return target;
+    }
+
+    // the per call setAccessible reflection path the invokers replace.
+    @Benchmark
+    public Object utilsNewInstance() {
+        return InjectionUtils.newInstance(constructor, args);
+    }
+
+    @Benchmark
+    public Object utilsInvokeMethod() {
+        return InjectionUtils.invokeMethod(target, method, args);
+    }
+
+    @Benchmark
+    public Object utilsSetField() {
+        InjectionUtils.setFieldValue(target, field, "c");
+        return target;
+    }
+
+    static class Target {
+        private String value;
+
+        private Target(final String value) {
+            this.value = value;
+        }
+
+        private String concat(final String suffix) {
+            return value + suffix;
+        }
+    }
+}
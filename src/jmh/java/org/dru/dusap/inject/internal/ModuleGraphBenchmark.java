@@ -0,0 +1,54 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.InjectionBuilder;
+import org.dru.dusap.inject.Key;
+import org.dru.dusap.inject.Module;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.dru.dusap.inject.internal.BenchmarkModules.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+UseParallelGC"})
+@State(Scope.Benchmark)
+public class ModuleGraphBenchmark {
+    private InjectionImpl injection;
+    private InjectorImpl chainInjector;
+    private Key<?> chainKey;
+    private InjectorImpl fanOutInjector;
+    private Key<?> fanOutKey;
+
+    @Setup
+    public void setUp() throws Exception {
+        injection = (InjectionImpl) new InjectionBuilder().build();
+        chainInjector = injection.getInjector(Chain7.class);
+        chainKey = getProvidedKey(Chain7.class);
+        fanOutInjector = injection.getInjector(FanOutBase.class);
+        for (final Class<? extends Module> leafType : LEAVES) {
+            injection.getInjector(leafType);
+        }
+        fanOutKey = getProvidedKey(LEAVES.get(LEAVES.size() - 1));
+    }
+
+    // eight provider methods, each taking the exposed binding of the module below.
+    @Benchmark
+    public Object deepChain() {
+        return chainInjector.getInstance(chainKey);
+    }
+
+    // a binding found in one of sixteen child modules, resolved again after every invalidation.
+    @Benchmark
+    public Object fanOutUncached() {
+        injection.invalidateResolutions();
+        return fanOutInjector.getInstance(fanOutKey);
+    }
+
+    @Benchmark
+    public Object fanOutCached() {
+        return fanOutInjector.getInstance(fanOutKey);
+    }
+}
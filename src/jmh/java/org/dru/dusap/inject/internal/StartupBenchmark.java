@@ -0,0 +1,94 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.Injection;
+import org.dru.dusap.inject.InjectionBuilder;
+import org.dru.dusap.inject.Module;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.dru.dusap.inject.internal.BenchmarkModules.*;
+
+// a new injection per operation, class level caches (module graph, invokers, keys) are warm after the first one.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+UseParallelGC"})
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+    private byte[] snapshot;
+
+    // written by a copy of the benchmark in a class loader of its own, nothing of the graph is warm in this one.
+    @Setup
+    public void setUp() throws Exception {
+        final List<URL> urls = new ArrayList<>();
+        for (final String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            urls.add(new File(path).toURI().toURL());
+        }
+        try (URLClassLoader classLoader = new URLClassLoader(urls.toArray(new URL[0]),
+                ClassLoader.getPlatformClassLoader())) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            classLoader.loadClass(StartupBenchmark.class.getName()).getMethod("writeSnapshot", OutputStream.class)
+                    .invoke(null, out);
+            snapshot = out.toByteArray();
+        }
+    }
+
+    public static void writeSnapshot(final OutputStream out) throws IOException {
+        newInjectionCold(new InjectionBuilder()).writeSnapshot(out);
+    }
+
+    @Benchmark
+    public Object newInjector() {
+        return InjectionBuilder.newInjector(ApplicationModule.class);
+    }
+
+    @Benchmark
+    public Object newInjectorDeepChain() {
+        return InjectionBuilder.newInjector(Chain7.class);
+    }
+
+    @Benchmark
+    public Object newInjectorFanOut() {
+        final Injection injection = new InjectionBuilder().build();
+        for (final Class<? extends Module> leafType : LEAVES) {
+            injection.getInjector(leafType);
+        }
+        return injection;
+    }
+
+    // the first injection of the jvm, the snapshot skips the discovery of every module.
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(value = 20, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+UseParallelGC"})
+    public Object newInjectionCold() {
+        return newInjectionCold(new InjectionBuilder());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(value = 20, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+UseParallelGC"})
+    public Object newInjectionColdSnapshot() throws IOException {
+        return newInjectionCold(new InjectionBuilder().withSnapshot(new ByteArrayInputStream(snapshot)));
+    }
+
+    private static Injection newInjectionCold(final InjectionBuilder builder) {
+        final Injection injection = builder.build();
+        injection.getInjector(ApplicationModule.class);
+        injection.getInjector(Chain7.class);
+        for (final Class<? extends Module> leafType : LEAVES) {
+            injection.getInjector(leafType);
+        }
+        return injection;
+    }
+}
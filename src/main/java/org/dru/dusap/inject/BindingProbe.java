@@ -0,0 +1,12 @@
+package org.dru.dusap.inject;
+
+public interface BindingProbe {
+    // an instance was requested from the binding, provisioned or served by its scope.
+    void requested();
+
+    // around the provider method call and member injection, parameters are provisioned before. the returned token
+    // is handed back to provisionFinished on the same thread.
+    long provisionStarted();
+
+    void provisionFinished(long token);
+}
@@ -0,0 +1,20 @@
+package org.dru.dusap.inject;
+
+import javax.inject.Scope;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+@Scope
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ExpiringSingleton {
+    long ttl();
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    // how long before expiry a single caller triggers a background rebuild, 0 rebuilds on expiry only.
+    long refreshAhead() default 0;
+}
@@ -1,9 +1,26 @@
 package org.dru.dusap.inject;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
-public interface Injection {
+public interface Injection extends AutoCloseable {
     List<Binding<?>> getBindings();
 
     Injector getInjector(Class<? extends Module> moduleType);
+
+    ScopeContext openScope();
+
+    // the graph of the injectors configured so far, loaded by InjectionBuilder.withSnapshot on a later start.
+    void writeSnapshot(OutputStream out) throws IOException;
+
+    // whatever the instrumentation given to InjectionBuilder.withInstrumentation has collected.
+    void dumpInstrumentation(Appendable out) throws IOException;
+
+    // the spans recorded by the tracer given to InjectionBuilder.withTracer, as trace event JSON.
+    void exportTrace(Appendable out) throws IOException;
+
+    // disposes of the created singletons, dependants before their dependencies, see InjectionBuilder.withClose.
+    @Override
+    void close();
 }
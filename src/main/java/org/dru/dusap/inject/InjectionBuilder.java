@@ -1,25 +1,57 @@
 package org.dru.dusap.inject;
 
+import org.dru.dusap.inject.internal.BindingGraphSnapshot;
+import org.dru.dusap.inject.internal.ExpiringSingletonScopingFactory;
 import org.dru.dusap.inject.internal.InjectionImpl;
+import org.dru.dusap.inject.internal.Instrumentations;
+import org.dru.dusap.inject.internal.Invokers;
+import org.dru.dusap.inject.internal.PooledScopingFactory;
+import org.dru.dusap.inject.internal.RequestScopingFactory;
 import org.dru.dusap.inject.internal.ScopingFactoryRegistry;
 import org.dru.dusap.inject.internal.SingletonScopingFactory;
+import org.dru.dusap.inject.internal.SoftSingletonScopingFactory;
+import org.dru.dusap.inject.internal.ThreadScopingFactory;
+import org.dru.dusap.inject.internal.Tracers;
 
 import javax.inject.Scope;
 import javax.inject.Singleton;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @SuppressWarnings("UnusedReturnValue")
 public final class InjectionBuilder {
+    private static final long DEFAULT_CLOSE_TIMEOUT_SECONDS = 30;
+
     public static Injector newInjector(final Class<? extends Module> moduleType) {
         return new InjectionBuilder().build().getInjector(moduleType);
     }
 
     private final ScopingFactoryRegistry scopingFactoryRegistry;
+    private InvokerFactory invokerFactory;
+    private Executor eagerSingletonExecutor;
+    private BindingGraphSnapshot snapshot;
+    private Executor closeExecutor;
+    private long closeTimeoutNanos;
+    private Instrumentation instrumentation;
+    private Executor configurationExecutor;
+    private Tracer tracer;
 
     public InjectionBuilder() {
         scopingFactoryRegistry = new ScopingFactoryRegistry();
+        invokerFactory = Invokers.METHOD_HANDLE;
+        closeTimeoutNanos = TimeUnit.SECONDS.toNanos(DEFAULT_CLOSE_TIMEOUT_SECONDS);
+        instrumentation = Instrumentations.NOOP;
+        tracer = Tracers.NOOP;
         withScopingFactory(Singleton.class, new SingletonScopingFactory());
+        withScopingFactory(SoftSingleton.class, new SoftSingletonScopingFactory());
+        withScopingFactory(ExpiringSingleton.class, new ExpiringSingletonScopingFactory());
+        withScopingFactory(ThreadScoped.class, new ThreadScopingFactory());
+        withScopingFactory(RequestScoped.class, new RequestScopingFactory());
+        withScopingFactory(Pooled.class, new PooledScopingFactory());
     }
 
     public <T extends Annotation> InjectionBuilder withScopingFactory(final Class<T> annotationType,
@@ -28,7 +60,60 @@ public final class InjectionBuilder {
         return this;
     }
 
+    public InjectionBuilder withInvokerFactory(final InvokerFactory invokerFactory) {
+        Objects.requireNonNull(invokerFactory, "invokerFactory");
+        this.invokerFactory = invokerFactory;
+        return this;
+    }
+
+    // singletons are created in parallel on the executor as soon as their injector is configured.
+    public InjectionBuilder withEagerSingletons(final Executor executor) {
+        Objects.requireNonNull(executor, "executor");
+        eagerSingletonExecutor = executor;
+        return this;
+    }
+
+    // modules whose class files match the snapshot are configured without discovering their bindings again.
+    public InjectionBuilder withSnapshot(final InputStream in) throws IOException {
+        snapshot = BindingGraphSnapshot.read(in);
+        return this;
+    }
+
+    // singletons are closed on the executor, a temporary pool when null, Injection.close() gives up after timeout.
+    public InjectionBuilder withClose(final Executor executor, final long timeout, final TimeUnit unit) {
+        Objects.requireNonNull(unit, "unit");
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("timeout must be positive: " + timeout);
+        }
+        closeExecutor = executor;
+        closeTimeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
+    // InMemoryInstrumentation collects counts, latencies and allocations per key, dumped by the injection.
+    public InjectionBuilder withInstrumentation(final Instrumentation instrumentation) {
+        Objects.requireNonNull(instrumentation, "instrumentation");
+        this.instrumentation = instrumentation;
+        return this;
+    }
+
+    // modules without a dependency path between them are configured in parallel on the executor. configuring threads
+    // wait for eager singletons, so the eager singleton executor should not be the same bounded pool.
+    public InjectionBuilder withParallelConfiguration(final Executor executor) {
+        Objects.requireNonNull(executor, "executor");
+        configurationExecutor = executor;
+        return this;
+    }
+
+    // ChromeTracer records module configuration, provider methods and member injection for a trace viewer.
+    public InjectionBuilder withTracer(final Tracer tracer) {
+        Objects.requireNonNull(tracer, "tracer");
+        this.tracer = tracer;
+        return this;
+    }
+
     public Injection build() {
-        return new InjectionImpl(scopingFactoryRegistry);
+        return new InjectionImpl(scopingFactoryRegistry, invokerFactory, eagerSingletonExecutor, snapshot,
+                closeExecutor, closeTimeoutNanos, instrumentation, configurationExecutor, tracer);
     }
 }
@@ -28,44 +28,15 @@ public final class InjectionUtils {
     }
 
     public static List<Class<? extends Module>> getDependencyTypes(final Class<? extends Module> moduleType) {
-        Objects.requireNonNull(moduleType, "moduleType");
-        final DependsOn dependsOn = moduleType.getAnnotation(DependsOn.class);
-        return (dependsOn != null ? Arrays.asList(dependsOn.value()) : Collections.emptyList());
+        return ModuleGraph.getDependencyTypes(moduleType);
     }
 
     public static void checkModuleCircularity(final Class<? extends Module> moduleType) {
-        Objects.requireNonNull(moduleType, "moduleType");
-        checkModuleCircularity(moduleType, moduleType, new HashSet<>());
-    }
-
-    private static void checkModuleCircularity(final Class<? extends Module> moduleType,
-                                               final Class<? extends Module> currentType,
-                                               final Set<Class<? extends Module>> visitedTypes) {
-        if (visitedTypes.add(currentType)) {
-            for (final Class<? extends Module> dependencyType : getDependencyTypes(currentType)) {
-                if (dependencyType.equals(moduleType)) {
-                    throw new DependencyException("circular dependency: %s <-> %s",
-                            moduleType.getName(), currentType.getName());
-                }
-                checkModuleCircularity(moduleType, dependencyType, visitedTypes);
-            }
-        }
+        ModuleGraph.checkCircularity(moduleType);
     }
 
     public static int getModuleDepth(final Class<? extends Module> moduleType) {
-        Objects.requireNonNull(moduleType, "moduleType");
-        return getModuleDepth(moduleType, new HashSet<>(), 0);
-    }
-
-    private static int getModuleDepth(final Class<? extends Module> moduleType,
-                                      final Set<Class<? extends Module>> visitedTypes, final int depth) {
-        int result = depth;
-        if (visitedTypes.add(moduleType)) {
-            for (final Class<? extends Module> dependencyType : getDependencyTypes(moduleType)) {
-                result = Math.max(result, getModuleDepth(dependencyType, visitedTypes, depth + 1));
-            }
-        }
-        return result;
+        return ModuleGraph.getDepth(moduleType);
     }
 
     @SuppressWarnings("unchecked")
@@ -4,6 +4,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.concurrent.CompletionStage;
 
 public interface Injector {
     Class<? extends Module> getModuleType();
@@ -16,6 +17,15 @@ public interface Injector {
 
     <T> T getInstance(Class<T> type);
 
+    // bindings of async provider methods complete when their stage does, any other binding is provided right away.
+    <T> CompletionStage<T> getInstanceAsync(Key<T> key);
+
+    <T> CompletionStage<T> getInstanceAsync(Class<T> type);
+
+    // configured by the module type on top of this injector, sees the exposed bindings of this injector but adds
+    // nothing to the dependency graph of the injection.
+    Injector newInjector(Class<? extends Module> moduleType);
+
     <T> T newInstance(Constructor<T> constructor, boolean injectMembers);
 
     <T> T newInstance(Class<T> type, boolean injectMembers);
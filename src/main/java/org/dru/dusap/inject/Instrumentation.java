@@ -0,0 +1,10 @@
+package org.dru.dusap.inject;
+
+import java.io.IOException;
+
+// asked once for the probe of every provider method binding, the probes are called on every instance request.
+public interface Instrumentation {
+    BindingProbe probe(Key<?> key, Scoping scoping);
+
+    void dump(Appendable out) throws IOException;
+}
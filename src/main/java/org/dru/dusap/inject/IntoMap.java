@@ -0,0 +1,13 @@
+package org.dru.dusap.inject;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// the provided Map.Entry<K, V> is contributed to the Map<K, V> of the same qualifiers, together with the exposed
+// contributions of the modules depended on. keys are unique.
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface IntoMap {
+}
@@ -0,0 +1,13 @@
+package org.dru.dusap.inject;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// the provided T is contributed to the Set<T> of the same qualifiers, together with the exposed contributions of the
+// modules depended on.
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface IntoSet {
+}
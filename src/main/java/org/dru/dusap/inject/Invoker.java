@@ -0,0 +1,5 @@
+package org.dru.dusap.inject;
+
+public interface Invoker {
+    Object invoke(Object target, Object[] args);
+}
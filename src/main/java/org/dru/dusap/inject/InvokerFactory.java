@@ -0,0 +1,14 @@
+package org.dru.dusap.inject;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+
+public interface InvokerFactory {
+    Invoker getConstructorInvoker(Constructor<?> constructor);
+
+    Invoker getMethodInvoker(Method method);
+
+    BiConsumer<Object, Object> getFieldSetter(Field field);
+}
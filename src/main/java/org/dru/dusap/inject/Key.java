@@ -4,33 +4,48 @@ import org.dru.dusap.base.TypeLiteral;
 
 import javax.inject.Qualifier;
 import java.lang.annotation.Annotation;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Executable;
+import java.lang.reflect.Parameter;
 import java.lang.reflect.Type;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Stream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class Key<T> {
+    private static final Annotation[] NO_QUALIFIERS = new Annotation[0];
+    private static final Comparator<Annotation> QUALIFIER_ORDER = Comparator
+            .comparing((Annotation annotation) -> annotation.annotationType().getName())
+            .thenComparingInt(Annotation::hashCode);
+    // weakly interned so that keys never pin the class loader of their types, cleared entries are expunged
+    // through the queue by later interns.
+    private static final Map<InternedKey, InternedKey> INTERNED = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Key<?>> CLEARED = new ReferenceQueue<>();
+    private static final ClassValue<Key<?>> UNQUALIFIED = new ClassValue<Key<?>>() {
+        @Override
+        protected Key<?> computeValue(final Class<?> type) {
+            return intern(new Key<>(type, NO_QUALIFIERS));
+        }
+    };
+
     public static Key<?>[] of(final Executable executable) {
-        return Stream.of(executable.getParameters())
-                .map((parameter) -> Key.of(parameter.getParameterizedType(), parameter))
-                .toArray(Key<?>[]::new);
+        final Parameter[] parameters = executable.getParameters();
+        final Key<?>[] keys = new Key<?>[parameters.length];
+        for (int index = 0; index < parameters.length; index++) {
+            keys[index] = Key.of(parameters[index].getParameterizedType(), parameters[index]);
+        }
+        return keys;
     }
 
     public static Key<?> of(final Type type, final AnnotatedElement element) {
         Objects.requireNonNull(type, "type");
-        final Set<Annotation> qualifiers = new HashSet<>();
-        if (element != null) {
-            for (final Annotation annotation : element.getAnnotations()) {
-                if (annotation.annotationType().getAnnotation(Qualifier.class) != null) {
-                    qualifiers.add(annotation);
-                }
-            }
+        final Annotation[] qualifiers = getQualifiers(element);
+        if (qualifiers == NO_QUALIFIERS && type instanceof Class) {
+            return UNQUALIFIED.get((Class<?>) type);
         }
-        return new Key<>(TypeLiteral.of(type), qualifiers);
+        return intern(new Key<>(type, qualifiers));
     }
 
     @SuppressWarnings("unchecked")
@@ -38,42 +53,109 @@ public final class Key<T> {
         return (Key<T>) of((Type) type, element);
     }
 
+    private static Annotation[] getQualifiers(final AnnotatedElement element) {
+        if (element == null) {
+            return NO_QUALIFIERS;
+        }
+        final List<Annotation> qualifiers = new ArrayList<>();
+        for (final Annotation annotation : element.getAnnotations()) {
+            if (annotation.annotationType().getAnnotation(Qualifier.class) != null) {
+                qualifiers.add(annotation);
+            }
+        }
+        if (qualifiers.isEmpty()) {
+            return NO_QUALIFIERS;
+        }
+        qualifiers.sort(QUALIFIER_ORDER);
+        return qualifiers.toArray(NO_QUALIFIERS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Key<T> intern(final Key<T> key) {
+        for (Reference<? extends Key<?>> ref; (ref = CLEARED.poll()) != null; ) {
+            INTERNED.remove(ref, ref);
+        }
+        final InternedKey existing = INTERNED.get(new InternedKey(key, null));
+        Key<?> interned = (existing != null ? existing.get() : null);
+        if (interned != null) {
+            return (Key<T>) interned;
+        }
+        final InternedKey candidate = new InternedKey(key, CLEARED);
+        while (true) {
+            final InternedKey current = INTERNED.putIfAbsent(candidate, candidate);
+            if (current == null) {
+                return key;
+            }
+            interned = current.get();
+            if (interned != null) {
+                return (Key<T>) interned;
+            }
+            // cleared but not expunged yet.
+            INTERNED.remove(current, current);
+        }
+    }
+
+    private final Type genericType;
     private final TypeLiteral<T> type;
-    private final Set<Annotation> qualifiers;
+    // sorted by annotation type, never modified.
+    private final Annotation[] qualifiers;
+    private final Class<? extends Module> sourceType;
+    private final int hash;
+    private Key<T> withoutSource;
 
-    private Key(final TypeLiteral<T> type, final Set<Annotation> qualifiers) {
-        Objects.requireNonNull(type, "type");
+    private Key(final Type genericType, final Annotation[] qualifiers) {
+        Objects.requireNonNull(genericType, "genericType");
         Objects.requireNonNull(qualifiers, "qualifiers");
-        this.type = TypeLiteral.normalize(type);
+        this.genericType = genericType;
+        type = TypeLiteral.normalize(TypeLiteral.of(genericType));
         this.qualifiers = qualifiers;
+        Class<? extends Module> sourceType = null;
+        for (final Annotation qualifier : qualifiers) {
+            if (qualifier.annotationType() == Source.class) {
+                sourceType = ((Source) qualifier).value();
+            }
+        }
+        this.sourceType = sourceType;
+        hash = 31 * type.hashCode() + Arrays.hashCode(qualifiers);
     }
 
     public TypeLiteral<T> getType() {
         return type;
     }
 
+    public Type getGenericType() {
+        return genericType;
+    }
+
     public Set<Annotation> getQualifiers() {
-        return Collections.unmodifiableSet(qualifiers);
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(qualifiers)));
     }
 
     public Class<? extends Module> getSourceTypeOrDefault(final Class<? extends Module> defaultType) {
-        for (final Annotation qualifier : qualifiers) {
-            if (qualifier.annotationType() == Source.class) {
-                return ((Source) qualifier).value();
-            }
-        }
-        return defaultType;
+        return (sourceType != null ? sourceType : defaultType);
     }
 
     public Key<T> withoutSource() {
-        for (final Annotation qualifier : qualifiers) {
-            if (qualifier.annotationType() == Source.class) {
-                final Set<Annotation> reduced = new HashSet<>(qualifiers);
-                reduced.remove(qualifier);
-                return new Key<>(type, reduced);
-            }
+        if (sourceType == null) {
+            return this;
+        }
+        Key<T> result = withoutSource;
+        if (result == null) {
+            final Annotation[] reduced = Arrays.stream(qualifiers)
+                    .filter((qualifier) -> qualifier.annotationType() != Source.class)
+                    .toArray(Annotation[]::new);
+            result = intern(new Key<>(genericType, (reduced.length != 0 ? reduced : NO_QUALIFIERS)));
+            withoutSource = result;
+        }
+        return result;
+    }
+
+    public Key<?> withType(final Type type) {
+        Objects.requireNonNull(type, "type");
+        if (qualifiers == NO_QUALIFIERS && type instanceof Class) {
+            return UNQUALIFIED.get((Class<?>) type);
         }
-        return this;
+        return intern(new Key<>(type, qualifiers));
     }
 
     @Override
@@ -81,20 +163,44 @@ public final class Key<T> {
         if (this == o) return true;
         if (!(o instanceof Key)) return false;
         final Key<?> key = (Key<?>) o;
-        return type.equals(key.type) &&
-                qualifiers.equals(key.qualifiers);
+        return hash == key.hash &&
+                type.equals(key.type) &&
+                Arrays.equals(qualifiers, key.qualifiers);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(type, qualifiers);
+        return hash;
     }
 
     @Override
     public String toString() {
         return "Key{" +
                 "type=" + type +
-                ", qualifiers=" + qualifiers +
+                ", qualifiers=" + Arrays.toString(qualifiers) +
                 '}';
     }
+
+    // equal to another while both keys are alive, a cleared one is only equal to itself.
+    private static final class InternedKey extends WeakReference<Key<?>> {
+        private final int hash;
+
+        InternedKey(final Key<?> key, final ReferenceQueue<? super Key<?>> queue) {
+            super(key, queue);
+            hash = key.hash;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof InternedKey)) return false;
+            final Key<?> key = get();
+            return key != null && key.equals(((InternedKey) o).get());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
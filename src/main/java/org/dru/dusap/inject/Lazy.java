@@ -0,0 +1,5 @@
+package org.dru.dusap.inject;
+
+public interface Lazy<T> {
+    T get();
+}
@@ -0,0 +1,8 @@
+package org.dru.dusap.inject;
+
+public interface Lease<T> extends AutoCloseable {
+    T get();
+
+    @Override
+    void close();
+}
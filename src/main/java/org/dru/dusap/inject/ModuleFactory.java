@@ -0,0 +1,18 @@
+package org.dru.dusap.inject;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+// implemented by the classes generated for modules by the annotation processor, found by naming convention:
+// <package>.<Outer_Module>_ModuleFactory
+public interface ModuleFactory {
+    List<Class<? extends Module>> getDependencyTypes();
+
+    Module newModule();
+
+    // provider methods in binding order, looked up by name instead of scanning the hierarchy.
+    List<Method> getProviderMethods();
+
+    // invoker calling the provider method at the same index directly.
+    List<Invoker> getProviderInvokers();
+}
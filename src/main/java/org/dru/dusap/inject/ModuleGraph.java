@@ -0,0 +1,139 @@
+package org.dru.dusap.inject;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+// dependency lists of module types are read once, each module type is checked for circularity and measured in a
+// single pass that only visits modules not analyzed before.
+public final class ModuleGraph {
+    private static final int UNANALYZED = -1;
+    private static final ClassValue<Node> NODES = new ClassValue<Node>() {
+        @SuppressWarnings("unchecked")
+        @Override
+        protected Node computeValue(final Class<?> type) {
+            return new Node((Class<? extends Module>) type);
+        }
+    };
+
+    public static List<Class<? extends Module>> getDependencyTypes(final Class<? extends Module> moduleType) {
+        Objects.requireNonNull(moduleType, "moduleType");
+        return NODES.get(moduleType).dependencyTypes;
+    }
+
+    public static void checkCircularity(final Class<? extends Module> moduleType) {
+        Objects.requireNonNull(moduleType, "moduleType");
+        analyze(NODES.get(moduleType));
+    }
+
+    // length of the longest dependency path from the module type.
+    public static int getDepth(final Class<? extends Module> moduleType) {
+        Objects.requireNonNull(moduleType, "moduleType");
+        final Node node = NODES.get(moduleType);
+        analyze(node);
+        return node.depth;
+    }
+
+    private static void analyze(final Node node) {
+        if (node.depth == UNANALYZED) {
+            synchronized (NODES) {
+                if (node.depth == UNANALYZED) {
+                    new Tarjan().visit(node);
+                }
+            }
+        }
+    }
+
+    private ModuleGraph() throws InstantiationException {
+        throw new InstantiationException();
+    }
+
+    private static final class Node {
+        private final Class<? extends Module> type;
+        private final List<Class<? extends Module>> dependencyTypes;
+        // set once the node and everything it depends on is known to be acyclic.
+        private volatile int depth;
+
+        Node(final Class<? extends Module> type) {
+            this.type = type;
+            final DependsOn dependsOn = type.getAnnotation(DependsOn.class);
+            dependencyTypes = (dependsOn != null
+                    ? Collections.unmodifiableList(Arrays.asList(dependsOn.value())) : Collections.emptyList());
+            depth = UNANALYZED;
+        }
+    }
+
+    // strongly connected components of the unanalyzed nodes, completed in reverse topological order.
+    private static final class Tarjan {
+        private final Map<Node, Integer> indexByNode = new IdentityHashMap<>();
+        private final Map<Node, Integer> lowLinkByNode = new IdentityHashMap<>();
+        private final Deque<Node> stack = new ArrayDeque<>();
+        private final Set<Node> onStack = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        void visit(final Node node) {
+            final int index = indexByNode.size();
+            indexByNode.put(node, index);
+            lowLinkByNode.put(node, index);
+            stack.push(node);
+            onStack.add(node);
+            for (final Class<? extends Module> dependencyType : node.dependencyTypes) {
+                final Node dependency = NODES.get(dependencyType);
+                if (dependency.depth != UNANALYZED) {
+                    continue;
+                }
+                if (!indexByNode.containsKey(dependency)) {
+                    visit(dependency);
+                    lowLinkByNode.put(node, Math.min(lowLinkByNode.get(node), lowLinkByNode.get(dependency)));
+                } else if (onStack.contains(dependency)) {
+                    lowLinkByNode.put(node, Math.min(lowLinkByNode.get(node), indexByNode.get(dependency)));
+                }
+            }
+            if (lowLinkByNode.get(node) == index) {
+                final Set<Node> component = Collections.newSetFromMap(new IdentityHashMap<>());
+                Node member;
+                do {
+                    member = stack.pop();
+                    onStack.remove(member);
+                    component.add(member);
+                } while (member != node);
+                if (component.size() > 1 || node.dependencyTypes.contains(node.type)) {
+                    throw new DependencyException("circular dependency: %s", getCyclePath(node, component));
+                }
+                // a single node component completes after everything it depends on.
+                int depth = 0;
+                for (final Class<? extends Module> dependencyType : node.dependencyTypes) {
+                    depth = Math.max(depth, NODES.get(dependencyType).depth + 1);
+                }
+                node.depth = depth;
+            }
+        }
+
+        // shortest path from the node back to itself within its component.
+        private static String getCyclePath(final Node start, final Set<Node> component) {
+            final Map<Node, Node> previousByNode = new IdentityHashMap<>();
+            final Deque<Node> queue = new ArrayDeque<>();
+            queue.add(start);
+            Node last = null;
+            while (last == null) {
+                final Node current = queue.remove();
+                for (final Class<? extends Module> dependencyType : current.dependencyTypes) {
+                    final Node dependency = NODES.get(dependencyType);
+                    if (dependency == start) {
+                        last = current;
+                        break;
+                    }
+                    if (component.contains(dependency) && !previousByNode.containsKey(dependency)) {
+                        previousByNode.put(dependency, current);
+                        queue.add(dependency);
+                    }
+                }
+            }
+            final Deque<Node> path = new ArrayDeque<>();
+            path.push(start);
+            for (Node current = last; current != start; current = previousByNode.get(current)) {
+                path.push(current);
+            }
+            path.push(start);
+            return path.stream().map((node) -> node.type.getName()).collect(Collectors.joining(" -> "));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.dru.dusap.inject;
+
+import javax.inject.Scope;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Scope
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Pooled {
+    // maximum number of idle instances kept for reuse.
+    int max();
+}
@@ -0,0 +1,10 @@
+package org.dru.dusap.inject;
+
+public interface ScopeContext extends AutoCloseable {
+    void enter();
+
+    void exit();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,13 @@
+package org.dru.dusap.inject;
+
+import java.io.IOException;
+
+// spans are begun and ended on the same thread, properly nested. subjects (module types, provider methods or the
+// types of injected instances) are only turned into names when exported.
+public interface Tracer {
+    void begin(String category, Object subject);
+
+    void end();
+
+    void export(Appendable out) throws IOException;
+}
@@ -0,0 +1,72 @@
+package org.dru.dusap.inject.internal;
+
+import java.util.Arrays;
+
+// distinct keys in their first order, found by scanning while there are few and by open addressing otherwise.
+final class ArrayIndex {
+    private static final int SCAN_MAX = 8;
+
+    private final Object[] keys;
+    // index + 1 of the key hashed to the slot, 0 when empty.
+    private final int[] slots;
+
+    ArrayIndex(final Object[] candidates) {
+        final Object[] distinct = new Object[candidates.length];
+        slots = (candidates.length > SCAN_MAX ? new int[Integer.highestOneBit(candidates.length * 2 - 1) << 1] : null);
+        int size = 0;
+        for (final Object candidate : candidates) {
+            if (indexOf(distinct, size, candidate) < 0) {
+                distinct[size] = candidate;
+                if (slots != null) {
+                    int slot = mix(candidate.hashCode()) & (slots.length - 1);
+                    while (slots[slot] != 0) {
+                        slot = (slot + 1) & (slots.length - 1);
+                    }
+                    slots[slot] = size + 1;
+                }
+                size++;
+            }
+        }
+        keys = (size == distinct.length ? distinct : Arrays.copyOf(distinct, size));
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    Object get(final int index) {
+        return keys[index];
+    }
+
+    int indexOf(final Object key) {
+        return indexOf(keys, keys.length, key);
+    }
+
+    private int indexOf(final Object[] keys, final int size, final Object key) {
+        if (key == null) {
+            return -1;
+        }
+        if (slots == null) {
+            for (int index = 0; index < size; index++) {
+                if (key.equals(keys[index])) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+        int slot = mix(key.hashCode()) & (slots.length - 1);
+        while (slots[slot] != 0) {
+            final int index = slots[slot] - 1;
+            if (key.equals(keys[index])) {
+                return index;
+            }
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        return -1;
+    }
+
+    private static int mix(final int hash) {
+        final int spread = hash * 0x9e3779b9;
+        return spread ^ (spread >>> 16);
+    }
+}
@@ -0,0 +1,79 @@
+package org.dru.dusap.inject.internal;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+// immutable, iterated in contribution order. values are at the positions of their distinct keys.
+final class ArrayMap<K, V> extends AbstractMap<K, V> {
+    private final ArrayIndex index;
+    private final Object[] values;
+
+    ArrayMap(final ArrayIndex index, final Object[] values) {
+        this.index = index;
+        this.values = values;
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return (index.indexOf(key) >= 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(final Object key) {
+        final int position = index.indexOf(key);
+        return (position >= 0 ? (V) values[position] : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        for (int position = 0; position < index.size(); position++) {
+            action.accept((K) index.get(position), (V) values[position]);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public int size() {
+                return index.size();
+            }
+
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<Entry<K, V>>() {
+                    private int position;
+
+                    @Override
+                    public boolean hasNext() {
+                        return (position < index.size());
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    @Override
+                    public Entry<K, V> next() {
+                        if (position >= index.size()) {
+                            throw new NoSuchElementException();
+                        }
+                        final Map.Entry<K, V> entry = new SimpleImmutableEntry<>((K) index.get(position),
+                                (V) values[position]);
+                        position++;
+                        return entry;
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package org.dru.dusap.inject.internal;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+// immutable, iterated in contribution order.
+final class ArraySet<E> extends AbstractSet<E> {
+    private final ArrayIndex index;
+    private final int hash;
+
+    ArraySet(final ArrayIndex index) {
+        this.index = index;
+        int hash = 0;
+        for (int position = 0; position < index.size(); position++) {
+            hash += index.get(position).hashCode();
+        }
+        this.hash = hash;
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return (index.indexOf(o) >= 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEach(final Consumer<? super E> action) {
+        for (int position = 0; position < index.size(); position++) {
+            action.accept((E) index.get(position));
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return (position < index.size());
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public E next() {
+                if (position >= index.size()) {
+                    throw new NoSuchElementException();
+                }
+                return (E) index.get(position++);
+            }
+        };
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
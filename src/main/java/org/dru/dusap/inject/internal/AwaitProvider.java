@@ -0,0 +1,52 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.InjectionException;
+
+import javax.inject.Provider;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+// bound under the value key of an async provider method, blocks for the stage when asked synchronously while async
+// provider methods and Injector.getInstanceAsync take the stage itself.
+final class AwaitProvider<T> implements Provider<T> {
+    private final BindingImpl<? extends CompletionStage<? extends T>> stageBinding;
+
+    AwaitProvider(final BindingImpl<? extends CompletionStage<? extends T>> stageBinding) {
+        this.stageBinding = stageBinding;
+    }
+
+    BindingImpl<? extends CompletionStage<? extends T>> getStageBinding() {
+        return stageBinding;
+    }
+
+    CompletableFuture<? extends T> getStage() {
+        final CompletionStage<? extends T> stage = stageBinding.getInstance();
+        if (stage == null) {
+            throw new InjectionException("null stage provided: %s", stageBinding.getKey());
+        }
+        return stage.toCompletableFuture();
+    }
+
+    @Override
+    public T get() {
+        try {
+            return getStage().join();
+        } catch (final CompletionException exc) {
+            if (exc.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exc.getCause();
+            }
+            if (exc.getCause() instanceof Error) {
+                throw (Error) exc.getCause();
+            }
+            throw new InjectionException("failed to provide %s", exc.getCause(), stageBinding.getKey());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Await{" +
+                "binding=" + stageBinding +
+                '}';
+    }
+}
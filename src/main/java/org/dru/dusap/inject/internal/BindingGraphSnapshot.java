@@ -0,0 +1,405 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// compact binary image of a configured module graph. a later start loads it to skip the circularity checks,
+// dependency scans and provider method discovery of every module whose class files are unchanged.
+// validation only stats files, an unchanged module is trusted to declare what the snapshot recorded.
+public final class BindingGraphSnapshot {
+    private static final Logger logger = LoggerFactory.getLogger(BindingGraphSnapshot.class);
+    private static final int MAGIC = 0x44534e50;
+    private static final int VERSION = 2;
+    private static final long NO_FINGERPRINT = -1L;
+    private static final Map<String, Class<?>> PRIMITIVE_BY_NAME = new HashMap<>();
+    private static final Map<File, Long> FINGERPRINT_BY_JAR = new ConcurrentHashMap<>();
+
+    static {
+        for (final Class<?> type : new Class<?>[]{boolean.class, byte.class, char.class, short.class, int.class,
+                long.class, float.class, double.class, void.class}) {
+            PRIMITIVE_BY_NAME.put(type.getName(), type);
+        }
+    }
+
+    public static BindingGraphSnapshot read(final InputStream in) throws IOException {
+        Objects.requireNonNull(in, "in");
+        final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new StreamCorruptedException("not a binding graph snapshot");
+        }
+        final int version = data.readUnsignedShort();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("unsupported snapshot version: " + version);
+        }
+        final String[] strings = new String[readCount(data)];
+        for (int index = 0; index < strings.length; index++) {
+            strings[index] = data.readUTF();
+        }
+        final Map<String, ModuleEntry> moduleEntryByName = new LinkedHashMap<>();
+        final int moduleCount = readCount(data);
+        for (int index = 0; index < moduleCount; index++) {
+            final ModuleEntry moduleEntry = ModuleEntry.read(data, strings);
+            moduleEntryByName.put(moduleEntry.hierarchy[0], moduleEntry);
+        }
+        checkAcyclic(moduleEntryByName);
+        return new BindingGraphSnapshot(moduleEntryByName);
+    }
+
+    // modules constructed by injection are left out, they are configured with reflection on every start.
+    static BindingGraphSnapshot of(final Collection<InjectorImpl> injectorImpls) {
+        final Map<String, ModuleEntry> moduleEntryByName = new TreeMap<>();
+        for (final InjectorImpl injectorImpl : injectorImpls) {
+            final Class<? extends Module> moduleType = injectorImpl.getModuleType();
+            if (InjectionUtils.getInjectableConstructor(moduleType).getParameterCount() == 0) {
+                moduleEntryByName.put(moduleType.getName(),
+                        ModuleEntry.of(moduleType, injectorImpl.getProviderMethods()));
+            }
+        }
+        return new BindingGraphSnapshot(moduleEntryByName);
+    }
+
+    private static void checkAcyclic(final Map<String, ModuleEntry> moduleEntryByName) throws IOException {
+        final Map<String, Boolean> doneByName = new HashMap<>();
+        for (final String name : moduleEntryByName.keySet()) {
+            checkAcyclic(name, moduleEntryByName, doneByName);
+        }
+    }
+
+    // done is false while the module is on the current path.
+    private static void checkAcyclic(final String name, final Map<String, ModuleEntry> moduleEntryByName,
+                                     final Map<String, Boolean> doneByName) throws IOException {
+        final Boolean done = doneByName.putIfAbsent(name, false);
+        if (done != null) {
+            if (!done) {
+                throw new StreamCorruptedException("circular dependency in snapshot: " + name);
+            }
+            return;
+        }
+        final ModuleEntry moduleEntry = moduleEntryByName.get(name);
+        if (moduleEntry != null) {
+            for (final String dependencyName : moduleEntry.dependencyTypes) {
+                checkAcyclic(dependencyName, moduleEntryByName, doneByName);
+            }
+        }
+        doneByName.put(name, true);
+    }
+
+    // size and modification time of the jar the class was loaded from, computed once per jar, or of the class
+    // file itself when it was loaded from a directory. nothing is read.
+    static long getFingerprint(final Class<?> type) {
+        final CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        final URL location = (codeSource != null ? codeSource.getLocation() : null);
+        if (location == null || !location.getProtocol().equals("file")) {
+            return NO_FINGERPRINT;
+        }
+        final File file;
+        try {
+            file = new File(location.toURI());
+        } catch (final URISyntaxException | IllegalArgumentException exc) {
+            return NO_FINGERPRINT;
+        }
+        if (file.isDirectory()) {
+            return getFingerprint(new File(file, type.getName().replace('.', File.separatorChar) + ".class"));
+        }
+        return FINGERPRINT_BY_JAR.computeIfAbsent(file, BindingGraphSnapshot::getFingerprint);
+    }
+
+    private static long getFingerprint(final File file) {
+        final long lastModified = file.lastModified();
+        return (lastModified != 0L ? lastModified * 31L + file.length() : NO_FINGERPRINT);
+    }
+
+    private static List<Class<?>> getModuleHierarchy(final Class<?> moduleType) {
+        final List<Class<?>> result = new ArrayList<>();
+        for (Class<?> current = moduleType; current != null && current != Object.class;
+             current = current.getSuperclass()) {
+            result.add(current);
+        }
+        return result;
+    }
+
+    private static int readCount(final DataInput in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = in.readUnsignedByte();
+            result |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                if (result < 0) {
+                    break;
+                }
+                return result;
+            }
+        }
+        throw new StreamCorruptedException("malformed count");
+    }
+
+    private static void writeCount(final DataOutput out, final int count) throws IOException {
+        int value = count;
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static String readString(final DataInput in, final String[] strings) throws IOException {
+        final int index = readCount(in);
+        if (index >= strings.length) {
+            throw new StreamCorruptedException("string index out of range: " + index);
+        }
+        return strings[index];
+    }
+
+    private static String[] readStrings(final DataInput in, final String[] strings) throws IOException {
+        final String[] result = new String[readCount(in)];
+        for (int index = 0; index < result.length; index++) {
+            result[index] = readString(in, strings);
+        }
+        return result;
+    }
+
+    private static void writeString(final DataOutput out, final Map<String, Integer> indexByString,
+                                    final String value) throws IOException {
+        Integer index = indexByString.get(value);
+        if (index == null) {
+            index = indexByString.size();
+            indexByString.put(value, index);
+        }
+        writeCount(out, index);
+    }
+
+    private final Map<String, ModuleEntry> moduleEntryByName;
+
+    private BindingGraphSnapshot(final Map<String, ModuleEntry> moduleEntryByName) {
+        this.moduleEntryByName = moduleEntryByName;
+    }
+
+    public Set<String> getModuleTypeNames() {
+        return Collections.unmodifiableSet(moduleEntryByName.keySet());
+    }
+
+    public void write(final OutputStream out) throws IOException {
+        Objects.requireNonNull(out, "out");
+        final Map<String, Integer> indexByString = new LinkedHashMap<>();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final DataOutputStream bodyData = new DataOutputStream(body);
+        writeCount(bodyData, moduleEntryByName.size());
+        for (final ModuleEntry moduleEntry : moduleEntryByName.values()) {
+            moduleEntry.write(bodyData, indexByString);
+        }
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        writeCount(data, indexByString.size());
+        for (final String string : indexByString.keySet()) {
+            data.writeUTF(string);
+        }
+        body.writeTo(data);
+        data.flush();
+    }
+
+    // a factory replaying the snapshot of the module, null when there is none or the module has changed since.
+    ModuleFactory getModuleFactoryOrNull(final Class<? extends Module> moduleType,
+                                         final InvokerFactory invokerFactory) {
+        final ModuleEntry moduleEntry = moduleEntryByName.get(moduleType.getName());
+        if (moduleEntry == null) {
+            return null;
+        }
+        try {
+            return moduleEntry.newModuleFactoryOrNull(moduleType, invokerFactory);
+        } catch (final ReflectiveOperationException | ClassCastException | LinkageError exc) {
+            logger.debug("stale snapshot of {}: {}", moduleType.getName(), exc.toString());
+            return null;
+        }
+    }
+
+    private static final class ModuleEntry {
+        // the module type first, followed by its super classes below Object.
+        private final String[] hierarchy;
+        private final long[] fingerprints;
+        private final String[] dependencyTypes;
+        private final ProviderEntry[] providerEntries;
+
+        static ModuleEntry read(final DataInput in, final String[] strings) throws IOException {
+            final String[] hierarchy = readStrings(in, strings);
+            if (hierarchy.length == 0) {
+                throw new StreamCorruptedException("module without type");
+            }
+            final long[] fingerprints = new long[hierarchy.length];
+            for (int index = 0; index < fingerprints.length; index++) {
+                fingerprints[index] = in.readLong();
+            }
+            final String[] dependencyTypes = readStrings(in, strings);
+            final ProviderEntry[] providerEntries = new ProviderEntry[readCount(in)];
+            for (int index = 0; index < providerEntries.length; index++) {
+                providerEntries[index] = ProviderEntry.read(in, strings);
+            }
+            return new ModuleEntry(hierarchy, fingerprints, dependencyTypes, providerEntries);
+        }
+
+        static ModuleEntry of(final Class<? extends Module> moduleType, final List<Method> providerMethods) {
+            final List<Class<?>> hierarchy = getModuleHierarchy(moduleType);
+            return new ModuleEntry(
+                    hierarchy.stream().map(Class::getName).toArray(String[]::new),
+                    hierarchy.stream().mapToLong(BindingGraphSnapshot::getFingerprint).toArray(),
+                    InjectionUtils.getDependencyTypes(moduleType).stream().map(Class::getName).toArray(String[]::new),
+                    providerMethods.stream().map(ProviderEntry::of).toArray(ProviderEntry[]::new));
+        }
+
+        private ModuleEntry(final String[] hierarchy, final long[] fingerprints, final String[] dependencyTypes,
+                            final ProviderEntry[] providerEntries) {
+            this.hierarchy = hierarchy;
+            this.fingerprints = fingerprints;
+            this.dependencyTypes = dependencyTypes;
+            this.providerEntries = providerEntries;
+        }
+
+        void write(final DataOutput out, final Map<String, Integer> indexByString) throws IOException {
+            writeStrings(out, indexByString, hierarchy);
+            for (final long fingerprint : fingerprints) {
+                out.writeLong(fingerprint);
+            }
+            writeStrings(out, indexByString, dependencyTypes);
+            writeCount(out, providerEntries.length);
+            for (final ProviderEntry providerEntry : providerEntries) {
+                providerEntry.write(out, indexByString);
+            }
+        }
+
+        ModuleFactory newModuleFactoryOrNull(final Class<? extends Module> moduleType,
+                                             final InvokerFactory invokerFactory)
+                throws ReflectiveOperationException {
+            final List<Class<?>> currentHierarchy = getModuleHierarchy(moduleType);
+            if (currentHierarchy.size() != hierarchy.length) {
+                logger.debug("stale snapshot of {}: hierarchy changed", moduleType.getName());
+                return null;
+            }
+            for (int index = 0; index < hierarchy.length; index++) {
+                final Class<?> type = currentHierarchy.get(index);
+                final long fingerprint = getFingerprint(type);
+                if (!type.getName().equals(hierarchy[index]) || fingerprint == NO_FINGERPRINT
+                        || fingerprint != fingerprints[index]) {
+                    logger.debug("stale snapshot of {}: {} changed", moduleType.getName(), type.getName());
+                    return null;
+                }
+            }
+            // the class files are unchanged, so are the dependencies, the constructor and the provider methods.
+            final ClassLoader classLoader = moduleType.getClassLoader();
+            final List<Class<? extends Module>> currentDependencyTypes = new ArrayList<>(dependencyTypes.length);
+            for (final String dependencyType : dependencyTypes) {
+                currentDependencyTypes.add(Class.forName(dependencyType, false, classLoader).asSubclass(Module.class));
+            }
+            final List<Method> providerMethods = new ArrayList<>(providerEntries.length);
+            final List<Invoker> providerInvokers = new ArrayList<>(providerEntries.length);
+            for (final ProviderEntry providerEntry : providerEntries) {
+                final Method method = providerEntry.resolve(currentHierarchy);
+                providerMethods.add(method);
+                providerInvokers.add(invokerFactory.getMethodInvoker(method));
+            }
+            return new SnapshotModuleFactory(Collections.unmodifiableList(currentDependencyTypes),
+                    moduleType.getDeclaredConstructor(), providerMethods, providerInvokers);
+        }
+
+        private static void writeStrings(final DataOutput out, final Map<String, Integer> indexByString,
+                                         final String[] values) throws IOException {
+            writeCount(out, values.length);
+            for (final String value : values) {
+                writeString(out, indexByString, value);
+            }
+        }
+    }
+
+    private static final class ProviderEntry {
+        private final String declaringType;
+        private final String name;
+        private final String[] parameterTypes;
+
+        static ProviderEntry read(final DataInput in, final String[] strings) throws IOException {
+            return new ProviderEntry(readString(in, strings), readString(in, strings), readStrings(in, strings));
+        }
+
+        static ProviderEntry of(final Method method) {
+            return new ProviderEntry(method.getDeclaringClass().getName(), method.getName(),
+                    Arrays.stream(method.getParameterTypes()).map(Class::getName).toArray(String[]::new));
+        }
+
+        private ProviderEntry(final String declaringType, final String name, final String[] parameterTypes) {
+            this.declaringType = declaringType;
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+        }
+
+        void write(final DataOutput out, final Map<String, Integer> indexByString) throws IOException {
+            writeString(out, indexByString, declaringType);
+            writeString(out, indexByString, name);
+            ModuleEntry.writeStrings(out, indexByString, parameterTypes);
+        }
+
+        // the provider method by its exact signature.
+        Method resolve(final List<Class<?>> hierarchy) throws ReflectiveOperationException {
+            Class<?> owner = null;
+            for (final Class<?> type : hierarchy) {
+                if (type.getName().equals(declaringType)) {
+                    owner = type;
+                }
+            }
+            if (owner == null) {
+                throw new NoSuchMethodException(declaringType + "." + name);
+            }
+            final Class<?>[] types = new Class<?>[parameterTypes.length];
+            for (int index = 0; index < types.length; index++) {
+                final Class<?> primitive = PRIMITIVE_BY_NAME.get(parameterTypes[index]);
+                types[index] = (primitive != null
+                        ? primitive : Class.forName(parameterTypes[index], false, owner.getClassLoader()));
+            }
+            return owner.getDeclaredMethod(name, types);
+        }
+    }
+
+    private static final class SnapshotModuleFactory implements ModuleFactory {
+        private final List<Class<? extends Module>> dependencyTypes;
+        private final Constructor<? extends Module> constructor;
+        private final List<Method> providerMethods;
+        private final List<Invoker> providerInvokers;
+
+        SnapshotModuleFactory(final List<Class<? extends Module>> dependencyTypes,
+                              final Constructor<? extends Module> constructor, final List<Method> providerMethods,
+                              final List<Invoker> providerInvokers) {
+            this.dependencyTypes = dependencyTypes;
+            this.constructor = constructor;
+            this.providerMethods = providerMethods;
+            this.providerInvokers = providerInvokers;
+        }
+
+        @Override
+        public List<Class<? extends Module>> getDependencyTypes() {
+            return dependencyTypes;
+        }
+
+        @Override
+        public Module newModule() {
+            return InjectionUtils.newInstance(constructor);
+        }
+
+        @Override
+        public List<Method> getProviderMethods() {
+            return providerMethods;
+        }
+
+        @Override
+        public List<Invoker> getProviderInvokers() {
+            return providerInvokers;
+        }
+    }
+}
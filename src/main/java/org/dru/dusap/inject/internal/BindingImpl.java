@@ -1,6 +1,7 @@
 package org.dru.dusap.inject.internal;
 
 import org.dru.dusap.inject.Binding;
+import org.dru.dusap.inject.BindingProbe;
 import org.dru.dusap.inject.Key;
 import org.dru.dusap.inject.Scoping;
 
@@ -12,9 +13,16 @@ final class BindingImpl<T> implements Binding<T> {
     private final Scoping scoping;
     private final Provider<? extends T> scopedProvider;
     private final boolean exposed;
+    private final BindingProbe probe;
 
     BindingImpl(final Key<T> key, final boolean exposed, final Provider<? extends T> provider, final Scoping scoping) {
+        this(key, exposed, provider, scoping, Instrumentations.NoopBindingProbe.INSTANCE);
+    }
+
+    BindingImpl(final Key<T> key, final boolean exposed, final Provider<? extends T> provider, final Scoping scoping,
+                final BindingProbe probe) {
         this.key = key;
+        this.probe = probe;
         this.exposed = exposed;
         this.provider = provider;
         this.scoping = scoping;
@@ -42,7 +50,20 @@ final class BindingImpl<T> implements Binding<T> {
         return scoping.getClass();
     }
 
+    Provider<? extends T> getProvider() {
+        return provider;
+    }
+
+    Scoping getScoping() {
+        return scoping;
+    }
+
+    Provider<? extends T> getScopedProvider() {
+        return scopedProvider;
+    }
+
     public T getInstance() {
+        probe.requested();
         return scopedProvider.get();
     }
 
@@ -0,0 +1,22 @@
+package org.dru.dusap.inject.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.dru.dusap.inject.BindingLookupMiss")
+@Label("Binding Lookup Miss")
+@Description("Binding not in the resolution cache of the injector, resolved through its module graph")
+@Category({"Dusap", "Injection"})
+final class BindingLookupMissEvent extends Event {
+    @Label("Module Type")
+    Class<?> moduleType;
+
+    @Label("Key")
+    String key;
+
+    @Label("Found")
+    boolean found;
+}
@@ -0,0 +1,19 @@
+package org.dru.dusap.inject.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.dru.dusap.inject.BindingProvisioned")
+@Label("Binding Provisioned")
+@Description("Provider method called and the provided instance injected, parameters are provisioned before")
+@Category({"Dusap", "Injection"})
+final class BindingProvisionedEvent extends Event {
+    @Label("Key")
+    String key;
+
+    @Label("Scope")
+    String scope;
+}
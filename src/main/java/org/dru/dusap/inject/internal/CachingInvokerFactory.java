@@ -0,0 +1,63 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.Invoker;
+import org.dru.dusap.inject.InvokerFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+final class CachingInvokerFactory implements InvokerFactory {
+    private final InvokerFactory invokerFactory;
+    // keyed by declaring class so that cached invokers never outlive the class loader of their members.
+    private final ClassValue<Map<Member, Object>> invokerByMember;
+
+    CachingInvokerFactory(final InvokerFactory invokerFactory) {
+        Objects.requireNonNull(invokerFactory, "invokerFactory");
+        this.invokerFactory = invokerFactory;
+        invokerByMember = new ClassValue<Map<Member, Object>>() {
+            @Override
+            protected Map<Member, Object> computeValue(final Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+    }
+
+    @Override
+    public Invoker getConstructorInvoker(final Constructor<?> constructor) {
+        return (Invoker) getCached(constructor);
+    }
+
+    @Override
+    public Invoker getMethodInvoker(final Method method) {
+        return (Invoker) getCached(method);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public BiConsumer<Object, Object> getFieldSetter(final Field field) {
+        return (BiConsumer<Object, Object>) getCached(field);
+    }
+
+    private Object getCached(final Member member) {
+        Objects.requireNonNull(member, "member");
+        final Map<Member, Object> cache = invokerByMember.get(member.getDeclaringClass());
+        final Object invoker = cache.get(member);
+        return (invoker != null ? invoker : cache.computeIfAbsent(member, this::newInvoker));
+    }
+
+    private Object newInvoker(final Member member) {
+        if (member instanceof Constructor) {
+            return invokerFactory.getConstructorInvoker((Constructor<?>) member);
+        } else if (member instanceof Method) {
+            return invokerFactory.getMethodInvoker((Method) member);
+        } else {
+            return invokerFactory.getFieldSetter((Field) member);
+        }
+    }
+}
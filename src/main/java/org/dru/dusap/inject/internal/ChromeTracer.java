@@ -0,0 +1,222 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.Tracer;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// records every span in memory and exports them in the trace event format read by chrome://tracing and Perfetto,
+// together with the critical path. meant for startup, recording stops with stop() or the first export so that
+// provisions made later on cost nothing but a volatile read.
+public final class ChromeTracer implements Tracer {
+    private static final double NANOS_PER_MICRO = 1000.0;
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private final long originNanos;
+    private final ThreadLocal<Deque<Span>> openSpans;
+    private final Queue<Span> finishedSpans;
+    private volatile boolean stopped;
+
+    public ChromeTracer() {
+        originNanos = System.nanoTime();
+        openSpans = ThreadLocal.withInitial(ArrayDeque::new);
+        finishedSpans = new ConcurrentLinkedQueue<>();
+    }
+
+    @Override
+    public void begin(final String category, final Object subject) {
+        if (stopped) {
+            return;
+        }
+        final Deque<Span> spans = openSpans.get();
+        spans.push(new Span(category, subject, Thread.currentThread(), spans.peek(), System.nanoTime()));
+    }
+
+    // spans still open when recording stops are left open, they are never exported.
+    @Override
+    public void end() {
+        if (stopped) {
+            return;
+        }
+        final Span span = openSpans.get().poll();
+        if (span == null) {
+            return;
+        }
+        span.endNanos = System.nanoTime();
+        if (span.parent != null) {
+            span.parent.children.add(span);
+        }
+        finishedSpans.add(span);
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    @Override
+    public void export(final Appendable out) throws IOException {
+        stop();
+        final List<Span> spans = getFinishedSpans();
+        out.append("{\"traceEvents\":[");
+        final Map<Long, String> threadNameById = new TreeMap<>();
+        spans.forEach((span) -> threadNameById.putIfAbsent(span.threadId, span.threadName));
+        String separator = "";
+        for (final Map.Entry<Long, String> entry : threadNameById.entrySet()) {
+            out.append(separator).append("\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":")
+                    .append(String.valueOf(entry.getKey())).append(",\"args\":{\"name\":");
+            appendString(out, entry.getValue());
+            out.append("}}");
+            separator = ",";
+        }
+        for (final Span span : spans) {
+            out.append(separator).append("\n{\"name\":");
+            appendString(out, getName(span.subject));
+            out.append(",\"cat\":");
+            appendString(out, span.category);
+            out.append(",\"ph\":\"X\",\"pid\":1,\"tid\":").append(String.valueOf(span.threadId))
+                    .append(",\"ts\":").append(formatMicros(span.startNanos - originNanos))
+                    .append(",\"dur\":").append(formatMicros(span.getNanos())).append('}');
+            separator = ",";
+        }
+        out.append("\n],\"displayTimeUnit\":\"ms\",\"otherData\":{\"criticalPath\":[");
+        separator = "";
+        for (final String line : getCriticalPath(spans)) {
+            out.append(separator).append("\n");
+            appendString(out, line);
+            separator = ",";
+        }
+        out.append("\n]}}\n");
+    }
+
+    // the critical path in plain text, one span per line.
+    public void summarize(final Appendable out) throws IOException {
+        for (final String line : getCriticalPath(getFinishedSpans())) {
+            out.append(line).append(System.lineSeparator());
+        }
+    }
+
+    private List<Span> getFinishedSpans() {
+        final List<Span> spans = new ArrayList<>(finishedSpans);
+        spans.sort(Comparator.comparingLong((Span span) -> span.startNanos).thenComparingLong((span) -> span.threadId));
+        return spans;
+    }
+
+    // outermost spans are chained back from the one ending last, each to the one ending last before it began, which
+    // is what a module configured in parallel waited for. each of them is followed down its longest nested spans.
+    private static List<String> getCriticalPath(final List<Span> spans) {
+        final List<Span> outermost = new ArrayList<>();
+        for (final Span span : spans) {
+            if (span.parent == null) {
+                outermost.add(span);
+            }
+        }
+        final Deque<Span> chain = new ArrayDeque<>();
+        Span current = getLastEnding(outermost, Long.MAX_VALUE);
+        while (current != null) {
+            chain.push(current);
+            current = getLastEnding(outermost, current.startNanos);
+        }
+        final List<String> result = new ArrayList<>();
+        if (chain.isEmpty()) {
+            return result;
+        }
+        result.add(String.format(Locale.ROOT, "critical path: %.3f ms",
+                (chain.getLast().endNanos - chain.getFirst().startNanos) / NANOS_PER_MILLI));
+        for (final Span first : chain) {
+            int depth = 1;
+            for (Span span = first; span != null; span = getLongestChild(span), depth++) {
+                result.add(String.format(Locale.ROOT, "%" + (2 * depth) + "s%.3f ms %s %s (self %.3f ms, thread %s)",
+                        "", span.getNanos() / NANOS_PER_MILLI, span.category, getName(span.subject),
+                        span.getSelfNanos() / NANOS_PER_MILLI, span.threadName));
+            }
+        }
+        return result;
+    }
+
+    private static Span getLastEnding(final List<Span> spans, final long beforeNanos) {
+        Span result = null;
+        for (final Span span : spans) {
+            if (span.endNanos <= beforeNanos && (result == null || span.endNanos > result.endNanos)) {
+                result = span;
+            }
+        }
+        return result;
+    }
+
+    private static Span getLongestChild(final Span span) {
+        Span result = null;
+        for (final Span child : span.children) {
+            if (result == null || child.getNanos() > result.getNanos()) {
+                result = child;
+            }
+        }
+        return result;
+    }
+
+    private static String getName(final Object subject) {
+        if (subject instanceof Class) {
+            return ((Class<?>) subject).getName();
+        }
+        if (subject instanceof Method) {
+            final Method method = (Method) subject;
+            return method.getDeclaringClass().getName() + "." + method.getName();
+        }
+        return String.valueOf(subject);
+    }
+
+    private static String formatMicros(final long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_MICRO);
+    }
+
+    private static void appendString(final Appendable out, final String value) throws IOException {
+        out.append('"');
+        for (int index = 0; index < value.length(); index++) {
+            final char ch = value.charAt(index);
+            if (ch == '"' || ch == '\\') {
+                out.append('\\').append(ch);
+            } else if (ch < ' ') {
+                out.append(String.format(Locale.ROOT, "\\u%04x", (int) ch));
+            } else {
+                out.append(ch);
+            }
+        }
+        out.append('"');
+    }
+
+    private static final class Span {
+        private final String category;
+        private final Object subject;
+        private final long threadId;
+        private final String threadName;
+        private final Span parent;
+        private final long startNanos;
+        // only touched by the thread of the span, published to exporting threads through the finished queue.
+        private final List<Span> children;
+        private long endNanos;
+
+        Span(final String category, final Object subject, final Thread thread, final Span parent,
+             final long startNanos) {
+            this.category = category;
+            this.subject = subject;
+            threadId = thread.getId();
+            threadName = thread.getName();
+            this.parent = parent;
+            this.startNanos = startNanos;
+            children = new ArrayList<>();
+        }
+
+        long getNanos() {
+            return endNanos - startNanos;
+        }
+
+        long getSelfNanos() {
+            long result = getNanos();
+            for (final Span child : children) {
+                result -= child.getNanos();
+            }
+            return result;
+        }
+    }
+}
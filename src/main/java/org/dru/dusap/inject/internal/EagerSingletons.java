@@ -0,0 +1,122 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.DependencyException;
+import org.dru.dusap.inject.InjectionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+final class EagerSingletons {
+    private static final Logger logger = LoggerFactory.getLogger(EagerSingletons.class);
+
+    // instantiates the singletons bound by the injector, the ones bound by its dependencies are already created.
+    static void instantiate(final InjectorImpl injector, final Executor executor) {
+        final long planStart = System.nanoTime();
+        final Map<BindingImpl<?>, List<BindingImpl<?>>> dependenciesBySingleton = new LinkedHashMap<>();
+        for (final BindingImpl<?> binding : injector.getLocalBindingImpls()) {
+            if (isSingleton(binding)) {
+                dependenciesBySingleton.put(binding, getSingletonDependencies(binding));
+            }
+        }
+        final long instantiateStart = System.nanoTime();
+        final Map<BindingImpl<?>, CompletableFuture<Void>> futureBySingleton = new HashMap<>();
+        for (final BindingImpl<?> binding : dependenciesBySingleton.keySet()) {
+            schedule(binding, dependenciesBySingleton, futureBySingleton, new HashSet<>(), executor);
+        }
+        try {
+            CompletableFuture.allOf(futureBySingleton.values().toArray(new CompletableFuture<?>[0])).join();
+        } catch (final CompletionException exc) {
+            if (exc.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exc.getCause();
+            }
+            throw new InjectionException("failed to instantiate singletons of %s", exc.getCause(),
+                    injector.getModuleType().getName());
+        }
+        final long end = System.nanoTime();
+        logger.debug("eager singletons of {}: planned {} in {} ms, instantiated in {} ms",
+                injector.getModuleType().getName(), dependenciesBySingleton.size(),
+                TimeUnit.NANOSECONDS.toMillis(instantiateStart - planStart),
+                TimeUnit.NANOSECONDS.toMillis(end - instantiateStart));
+    }
+
+    private static CompletableFuture<Void> schedule(
+            final BindingImpl<?> binding, final Map<BindingImpl<?>, List<BindingImpl<?>>> dependenciesBySingleton,
+            final Map<BindingImpl<?>, CompletableFuture<Void>> futureBySingleton, final Set<BindingImpl<?>> visiting,
+            final Executor executor) {
+        CompletableFuture<Void> future = futureBySingleton.get(binding);
+        if (future != null) {
+            return future;
+        }
+        final List<BindingImpl<?>> dependencies = dependenciesBySingleton.get(binding);
+        if (dependencies == null) {
+            // bound by a dependency module, instantiated when that injector was configured.
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!visiting.add(binding)) {
+            throw new DependencyException("circular singleton dependency: %s", binding);
+        }
+        final CompletableFuture<?>[] dependencyFutures = dependencies.stream()
+                .map((dependency) -> schedule(dependency, dependenciesBySingleton, futureBySingleton, visiting,
+                        executor))
+                .toArray(CompletableFuture<?>[]::new);
+        visiting.remove(binding);
+        future = CompletableFuture.allOf(dependencyFutures).thenRunAsync(binding::getInstance, executor);
+        futureBySingleton.put(binding, future);
+        return future;
+    }
+
+    // singletons reached through provider method parameters and the members injected into the provided instance,
+    // unscoped bindings in between are looked through.
+    static List<BindingImpl<?>> getSingletonDependencies(final BindingImpl<?> binding) {
+        return getSingletonDependencies(binding, false);
+    }
+
+    // with handles, the targets of Provider<T>, Lazy<T> and Lease<T> are reached too. they are not needed to provide
+    // a singleton but may be used by it until it is closed.
+    static List<BindingImpl<?>> getSingletonDependencies(final BindingImpl<?> binding, final boolean handles) {
+        final List<BindingImpl<?>> result = new ArrayList<>();
+        final Set<BindingImpl<?>> visited = new HashSet<>();
+        final Deque<BindingImpl<?>> pending = new ArrayDeque<>(getDirectDependencies(binding, handles));
+        while (!pending.isEmpty()) {
+            final BindingImpl<?> dependency = pending.pop();
+            if (visited.add(dependency)) {
+                if (isSingleton(dependency)) {
+                    result.add(dependency);
+                } else {
+                    pending.addAll(getDirectDependencies(dependency, handles));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<BindingImpl<?>> getDirectDependencies(final BindingImpl<?> binding, final boolean handles) {
+        if (binding.getProvider() instanceof AwaitProvider) {
+            return Collections.singletonList(((AwaitProvider<?>) binding.getProvider()).getStageBinding());
+        }
+        if (binding.getProvider() instanceof ProviderMethod) {
+            final ProviderMethod<?> providerMethod = (ProviderMethod<?>) binding.getProvider();
+            final List<BindingImpl<?>> result = new ArrayList<>(
+                    Arrays.asList(providerMethod.getParameterBindings().getBindings()));
+            result.addAll(providerMethod.getMemberBindings());
+            return result;
+        }
+        if (handles && binding.getProvider() instanceof HandleProvider) {
+            return Collections.singletonList(((HandleProvider<?>) binding.getProvider()).getTargetBinding());
+        }
+        return Collections.emptyList();
+    }
+
+    private static boolean isSingleton(final BindingImpl<?> binding) {
+        return (binding.getScoping() == Scopings.SINGLETON);
+    }
+
+    private EagerSingletons() throws InstantiationException {
+        throw new InstantiationException();
+    }
+}
@@ -0,0 +1,126 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.ExpiringSingleton;
+import org.dru.dusap.inject.ScopeException;
+import org.dru.dusap.inject.Scoping;
+import org.dru.dusap.inject.ScopingFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Provider;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+public final class ExpiringSingletonScopingFactory implements ScopingFactory<ExpiringSingleton> {
+    private static final Logger logger = LoggerFactory.getLogger(ExpiringSingletonScopingFactory.class);
+
+    private final Executor refreshExecutor;
+    private final LongSupplier nanoClock;
+
+    public ExpiringSingletonScopingFactory() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ExpiringSingletonScopingFactory(final Executor refreshExecutor) {
+        this(refreshExecutor, System::nanoTime);
+    }
+
+    // the clock reads nanoseconds the way System.nanoTime does, only differences between readings matter.
+    public ExpiringSingletonScopingFactory(final Executor refreshExecutor, final LongSupplier nanoClock) {
+        Objects.requireNonNull(refreshExecutor, "refreshExecutor");
+        Objects.requireNonNull(nanoClock, "nanoClock");
+        this.refreshExecutor = refreshExecutor;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Scoping getScoping(final ExpiringSingleton annotation) {
+        if (annotation.ttl() <= 0 || annotation.refreshAhead() < 0 || annotation.refreshAhead() >= annotation.ttl()) {
+            throw new ScopeException("illegal expiry: ttl=%d, refreshAhead=%d", annotation.ttl(),
+                    annotation.refreshAhead());
+        }
+        final long ttlNanos = annotation.unit().toNanos(annotation.ttl());
+        final long refreshAheadNanos = annotation.unit().toNanos(annotation.refreshAhead());
+        return new Scoping() {
+            @Override
+            public <T> Provider<T> scope(final Provider<T> provider) {
+                return new ExpiringSingletonProvider<>(provider, ttlNanos, refreshAheadNanos);
+            }
+        };
+    }
+
+    private final class ExpiringSingletonProvider<T> implements Provider<T> {
+        private final Provider<T> provider;
+        private final long ttlNanos;
+        private final long refreshAheadNanos;
+        private final AtomicBoolean refreshing;
+        private volatile Entry entry;
+
+        ExpiringSingletonProvider(final Provider<T> provider, final long ttlNanos, final long refreshAheadNanos) {
+            this.provider = provider;
+            this.ttlNanos = ttlNanos;
+            this.refreshAheadNanos = refreshAheadNanos;
+            refreshing = new AtomicBoolean();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T get() {
+            Entry current = entry;
+            final long now = nanoClock.getAsLong();
+            if (current == null || now - current.createdAt >= ttlNanos) {
+                current = rebuild(current);
+            } else if (refreshAheadNanos > 0 && now - current.createdAt >= ttlNanos - refreshAheadNanos
+                    && refreshing.compareAndSet(false, true)) {
+                final Entry expiring = current;
+                try {
+                    refreshExecutor.execute(() -> {
+                        try {
+                            rebuild(expiring);
+                        } catch (final RuntimeException exc) {
+                            logger.warn("failed to refresh {}", provider, exc);
+                        } finally {
+                            refreshing.set(false);
+                        }
+                    });
+                } catch (final RuntimeException exc) {
+                    // a rejected refresh is tried again by the next caller, at expiry the caller rebuilds.
+                    logger.debug("failed to schedule refresh of {}", provider, exc);
+                    refreshing.set(false);
+                }
+            }
+            return (T) current.instance;
+        }
+
+        // rebuilds unless another caller already replaced the entry.
+        private synchronized Entry rebuild(final Entry expired) {
+            Entry current = entry;
+            if (current == expired) {
+                current = new Entry(provider.get(), nanoClock.getAsLong());
+                entry = current;
+            }
+            return current;
+        }
+
+        @Override
+        public String toString() {
+            return "ExpiringSingleton{" +
+                    "provider=" + provider +
+                    ", ttlNanos=" + ttlNanos +
+                    '}';
+        }
+    }
+
+    private static final class Entry {
+        private final Object instance;
+        private final long createdAt;
+
+        Entry(final Object instance, final long createdAt) {
+            this.instance = instance;
+            this.createdAt = createdAt;
+        }
+    }
+}
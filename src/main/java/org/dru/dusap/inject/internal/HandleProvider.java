@@ -0,0 +1,24 @@
+package org.dru.dusap.inject.internal;
+
+import javax.inject.Provider;
+
+// provides the Provider<T>, Lazy<T> or Lease<T> handle of a target binding, which is kept so that singletons can be
+// closed before the ones their handles reach.
+final class HandleProvider<T> implements Provider<T> {
+    private final BindingImpl<?> targetBinding;
+    private final Provider<T> provider;
+
+    HandleProvider(final BindingImpl<?> targetBinding, final Provider<T> provider) {
+        this.targetBinding = targetBinding;
+        this.provider = provider;
+    }
+
+    BindingImpl<?> getTargetBinding() {
+        return targetBinding;
+    }
+
+    @Override
+    public T get() {
+        return provider.get();
+    }
+}
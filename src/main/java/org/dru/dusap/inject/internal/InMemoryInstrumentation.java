@@ -0,0 +1,229 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.BindingProbe;
+import org.dru.dusap.inject.Instrumentation;
+import org.dru.dusap.inject.Key;
+import org.dru.dusap.inject.Scoping;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// keeps counters per key, bindings of the same key in different injectors are added up. allocations are the bytes
+// allocated by the provisioning thread, as reported by the HotSpot thread bean when it supports it. latencies and
+// allocations are those of the provision itself, the provisions nested in it by member injection are subtracted.
+public final class InMemoryInstrumentation implements Instrumentation {
+    private static final int MAX_DEPTH = 64;
+
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final Map<Key<?>, Probe> probeByKey;
+    private final ThreadLocal<Frames> frames;
+
+    public InMemoryInstrumentation() {
+        this(true);
+    }
+
+    public InMemoryInstrumentation(final boolean trackAllocations) {
+        threadBean = (trackAllocations ? getAllocationThreadBean() : null);
+        probeByKey = new ConcurrentHashMap<>();
+        frames = ThreadLocal.withInitial(Frames::new);
+    }
+
+    @Override
+    public BindingProbe probe(final Key<?> key, final Scoping scoping) {
+        return probeByKey.computeIfAbsent(key, ($) -> new Probe(key, scoping != Scopings.NO_SCOPING));
+    }
+
+    public Stats getStats(final Key<?> key) {
+        final Probe probe = probeByKey.get(key);
+        return (probe != null ? probe.getStats() : null);
+    }
+
+    public boolean isTrackingAllocations() {
+        return (threadBean != null);
+    }
+
+    @Override
+    public void dump(final Appendable out) throws IOException {
+        final List<Stats> stats = new ArrayList<>();
+        probeByKey.values().forEach((probe) -> stats.add(probe.getStats()));
+        stats.sort(Comparator.comparingLong((Stats value) -> value.totalNanos).reversed());
+        for (final Stats value : stats) {
+            out.append(value.toString()).append(System.lineSeparator());
+        }
+    }
+
+    private long getAllocatedBytes() {
+        return (threadBean != null ? threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0L);
+    }
+
+    private static com.sun.management.ThreadMXBean getAllocationThreadBean() {
+        try {
+            final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                final com.sun.management.ThreadMXBean result = (com.sun.management.ThreadMXBean) bean;
+                if (result.isThreadAllocatedMemorySupported() && result.isThreadAllocatedMemoryEnabled()) {
+                    return result;
+                }
+            }
+        } catch (final LinkageError exc) {
+            // not a HotSpot based runtime.
+        }
+        return null;
+    }
+
+    // start values of the provisions in progress on a thread, nested by member injection, and what the provisions
+    // nested in each of them took so far.
+    private static final class Frames {
+        private final long[] startNanos = new long[MAX_DEPTH];
+        private final long[] startBytes = new long[MAX_DEPTH];
+        private final long[] nestedNanos = new long[MAX_DEPTH];
+        private final long[] nestedBytes = new long[MAX_DEPTH];
+        private int depth;
+    }
+
+    private final class Probe implements BindingProbe {
+        private final Key<?> key;
+        private final boolean scoped;
+        private final LongAdder requests;
+        private final LongAdder allocatedBytes;
+        private final LongAdder totalNanos;
+        private final LatencyHistogram latencies;
+
+        Probe(final Key<?> key, final boolean scoped) {
+            this.key = key;
+            this.scoped = scoped;
+            requests = new LongAdder();
+            allocatedBytes = new LongAdder();
+            totalNanos = new LongAdder();
+            latencies = new LatencyHistogram();
+        }
+
+        @Override
+        public void requested() {
+            requests.increment();
+        }
+
+        @Override
+        public long provisionStarted() {
+            final Frames current = frames.get();
+            final int depth = current.depth++;
+            if (depth < MAX_DEPTH) {
+                current.nestedNanos[depth] = 0L;
+                current.nestedBytes[depth] = 0L;
+                current.startBytes[depth] = getAllocatedBytes();
+                current.startNanos[depth] = System.nanoTime();
+            }
+            return depth;
+        }
+
+        @Override
+        public void provisionFinished(final long token) {
+            final long end = System.nanoTime();
+            final Frames current = frames.get();
+            final int depth = (int) token;
+            current.depth = depth;
+            if (depth < MAX_DEPTH) {
+                final long nanos = end - current.startNanos[depth];
+                final long bytes = getAllocatedBytes() - current.startBytes[depth];
+                latencies.record(nanos - current.nestedNanos[depth]);
+                totalNanos.add(nanos - current.nestedNanos[depth]);
+                allocatedBytes.add(bytes - current.nestedBytes[depth]);
+                if (depth > 0) {
+                    current.nestedNanos[depth - 1] += nanos;
+                    current.nestedBytes[depth - 1] += bytes;
+                }
+            }
+        }
+
+        Stats getStats() {
+            return new Stats(key, scoped, requests.sum(), latencies.getTotalCount(), allocatedBytes.sum(),
+                    latencies.getValueAtPercentile(50), latencies.getValueAtPercentile(99), latencies.getMax(),
+                    totalNanos.sum());
+        }
+    }
+
+    public static final class Stats {
+        private final Key<?> key;
+        private final boolean scoped;
+        private final long requests;
+        private final long provisions;
+        private final long allocatedBytes;
+        private final long medianNanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+        private final long totalNanos;
+
+        Stats(final Key<?> key, final boolean scoped, final long requests, final long provisions,
+              final long allocatedBytes, final long medianNanos, final long p99Nanos, final long maxNanos,
+              final long totalNanos) {
+            this.key = key;
+            this.scoped = scoped;
+            this.requests = requests;
+            this.provisions = provisions;
+            this.allocatedBytes = allocatedBytes;
+            this.medianNanos = medianNanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+            this.totalNanos = totalNanos;
+        }
+
+        public Key<?> getKey() {
+            return key;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getProvisions() {
+            return provisions;
+        }
+
+        // requests served by the scope without a provision, always 0 for unscoped bindings.
+        public long getScopeHits() {
+            return (scoped ? Math.max(0L, requests - provisions) : 0L);
+        }
+
+        public long getScopeMisses() {
+            return (scoped ? provisions : 0L);
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public long getMedianNanos() {
+            return medianNanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        @Override
+        public String toString() {
+            return key + ": requests=" + requests +
+                    ", provisions=" + provisions +
+                    (scoped ? ", hits=" + getScopeHits() + ", misses=" + getScopeMisses() : "") +
+                    ", p50=" + TimeUnit.NANOSECONDS.toMicros(medianNanos) + "us" +
+                    ", p99=" + TimeUnit.NANOSECONDS.toMicros(p99Nanos) + "us" +
+                    ", max=" + TimeUnit.NANOSECONDS.toMicros(maxNanos) + "us" +
+                    ", allocated=" + (provisions != 0 ? allocatedBytes / provisions : 0) + "B/provision";
+        }
+    }
+}
@@ -2,52 +2,323 @@ package org.dru.dusap.inject.internal;
 
 import org.dru.dusap.inject.Binding;
 import org.dru.dusap.inject.Injection;
+import org.dru.dusap.inject.InjectionException;
 import org.dru.dusap.inject.InjectionUtils;
+import org.dru.dusap.inject.Instrumentation;
+import org.dru.dusap.inject.InvokerFactory;
 import org.dru.dusap.inject.Module;
+import org.dru.dusap.inject.ModuleFactory;
+import org.dru.dusap.inject.RequestScoped;
+import org.dru.dusap.inject.ScopeContext;
+import org.dru.dusap.inject.ScopeException;
+import org.dru.dusap.inject.ScopingFactory;
+import org.dru.dusap.inject.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public final class InjectionImpl implements Injection {
     private static final Logger logger = LoggerFactory.getLogger(InjectionImpl.class);
 
     private final ScopingFactoryRegistry scopingFactoryRegistry;
+    private final InvokerFactory invokerFactory;
+    private final ClassValue<InjectionPoints> injectionPointsByType;
+    private final Executor eagerSingletonExecutor;
+    private final BindingGraphSnapshot snapshot;
+    private final Executor closeExecutor;
+    private final long closeTimeoutNanos;
+    private final Instrumentation instrumentation;
+    private final Executor configurationExecutor;
+    private final Tracer tracer;
+    // set on threads configuring in parallel, modules they ask for are configured on the spot.
+    private final ThreadLocal<Boolean> configuringInParallel;
+    // only fully configured injectors, read without locking.
     private final Map<Class<?>, InjectorImpl> injectorImplByModuleType;
+    // injectors being configured, only visible to the thread holding the module type lock.
+    private final Map<Class<?>, InjectorImpl> configuringByModuleType;
+    private final Map<Class<?>, Object> lockByModuleType;
+    // children still reachable when the injection closes, held weakly so that dropping a child frees it.
+    private final Set<InjectorImpl> childInjectorImpls;
+    private final AtomicBoolean closed;
+    // bumped whenever bindings or injectors appear, invalidates every resolved binding cached by the injectors.
+    private final AtomicInteger generation;
 
-    public InjectionImpl(final ScopingFactoryRegistry scopingFactoryRegistry) {
+    public InjectionImpl(final ScopingFactoryRegistry scopingFactoryRegistry, final InvokerFactory invokerFactory,
+                         final Executor eagerSingletonExecutor, final BindingGraphSnapshot snapshot,
+                         final Executor closeExecutor, final long closeTimeoutNanos,
+                         final Instrumentation instrumentation, final Executor configurationExecutor,
+                         final Tracer tracer) {
         Objects.requireNonNull(scopingFactoryRegistry, "scopeFactoryRegistry");
+        Objects.requireNonNull(invokerFactory, "invokerFactory");
+        Objects.requireNonNull(instrumentation, "instrumentation");
+        Objects.requireNonNull(tracer, "tracer");
         this.scopingFactoryRegistry = scopingFactoryRegistry;
-        injectorImplByModuleType = new HashMap<>();
+        this.eagerSingletonExecutor = eagerSingletonExecutor;
+        this.snapshot = snapshot;
+        this.closeExecutor = closeExecutor;
+        this.closeTimeoutNanos = closeTimeoutNanos;
+        this.instrumentation = instrumentation;
+        this.configurationExecutor = configurationExecutor;
+        this.tracer = tracer;
+        this.invokerFactory = new CachingInvokerFactory(invokerFactory);
+        // class values are owned by the injected classes, caching their members never pins a class loader.
+        injectionPointsByType = new ClassValue<InjectionPoints>() {
+            @Override
+            protected InjectionPoints computeValue(final Class<?> type) {
+                return new InjectionPoints(type, InjectionImpl.this.invokerFactory);
+            }
+        };
+        injectorImplByModuleType = new ConcurrentHashMap<>();
+        configuringByModuleType = new ConcurrentHashMap<>();
+        lockByModuleType = new ConcurrentHashMap<>();
+        childInjectorImpls = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+        generation = new AtomicInteger();
+        closed = new AtomicBoolean();
+        configuringInParallel = new ThreadLocal<>();
     }
 
     @Override
-    public synchronized List<Binding<?>> getBindings() {
+    public List<Binding<?>> getBindings() {
         return injectorImplByModuleType.values().stream()
                 .flatMap((injectorImpl) -> injectorImpl.getLocalBindings().stream())
                 .collect(Collectors.toList());
     }
 
     @Override
-    public synchronized InjectorImpl getInjector(final Class<? extends Module> moduleType) {
+    public InjectorImpl getInjector(final Class<? extends Module> moduleType) {
+        final InjectorImpl injectorImpl = injectorImplByModuleType.get(moduleType);
+        if (injectorImpl != null) {
+            return injectorImpl;
+        }
+        Objects.requireNonNull(moduleType, "moduleType");
+        if (configurationExecutor != null && configuringInParallel.get() == null) {
+            configureInParallel(moduleType);
+        }
         return getInjectorInternal(moduleType);
     }
 
+    // the calling thread waits without holding any module type lock, so the configuring threads never wait for it.
+    private void configureInParallel(final Class<? extends Module> moduleType) {
+        runConfiguringInParallel(() -> ParallelConfiguration.configure(moduleType,
+                injectorImplByModuleType::containsKey, this::getModuleFactoryOrNull,
+                (type, moduleFactory) -> runConfiguringInParallel(() -> getInjectorInternal(type, () -> moduleFactory)),
+                configurationExecutor));
+    }
+
+    // tasks may well run on the calling thread, its flag is only cleared by whoever set it.
+    private void runConfiguringInParallel(final Runnable runnable) {
+        if (configuringInParallel.get() != null) {
+            runnable.run();
+            return;
+        }
+        configuringInParallel.set(Boolean.TRUE);
+        try {
+            runnable.run();
+        } finally {
+            configuringInParallel.remove();
+        }
+    }
+
     private InjectorImpl getInjectorInternal(final Class<? extends Module> moduleType) {
-        InjectorImpl injectorImpl = injectorImplByModuleType.get(moduleType);
-        if (injectorImpl == null) {
+        return getInjectorInternal(moduleType, () -> getModuleFactoryOrNull(moduleType));
+    }
+
+    private InjectorImpl getInjectorInternal(final Class<? extends Module> moduleType,
+                                             final Supplier<ModuleFactory> moduleFactorySupplier) {
+        // module types are locked in dependency order only, circularity is checked before locking any dependency.
+        synchronized (lockByModuleType.computeIfAbsent(moduleType, ($) -> new Object())) {
+            InjectorImpl injectorImpl = injectorImplByModuleType.get(moduleType);
+            if (injectorImpl == null) {
+                injectorImpl = configuringByModuleType.get(moduleType);
+            }
+            if (injectorImpl == null) {
+                if (closed.get()) {
+                    throw new InjectionException("injection is closed");
+                }
+                tracer.begin("module", moduleType);
+                try {
+                    final ModuleFactory moduleFactory = moduleFactorySupplier.get();
+                    final Collection<Class<? extends Module>> dependencyTypes
+                            = getDependencyTypes(moduleType, moduleFactory);
+                    dependencyTypes.forEach(this::getInjector);
+                    injectorImpl = new InjectorImpl(this, null, scopingFactoryRegistry, moduleType, dependencyTypes);
+                    configuringByModuleType.put(moduleType, injectorImpl);
+                    try {
+                        configure(injectorImpl, moduleFactory);
+                        publish(injectorImpl, dependencyTypes);
+                        if (eagerSingletonExecutor != null) {
+                            EagerSingletons.instantiate(injectorImpl, eagerSingletonExecutor);
+                        }
+                    } finally {
+                        configuringByModuleType.remove(moduleType);
+                    }
+                } finally {
+                    tracer.end();
+                }
+            }
+            return injectorImpl;
+        }
+    }
+
+    // children are never registered nor published, nothing but their own references keeps them reachable.
+    // the injection tracks them weakly, the singletons of those still around are closed along with its own.
+    InjectorImpl newChildInjector(final InjectorImpl parentInjectorImpl, final Class<? extends Module> moduleType) {
+        tracer.begin("module", moduleType);
+        try {
+            final ModuleFactory moduleFactory = getModuleFactoryOrNull(moduleType);
+            final Collection<Class<? extends Module>> dependencyTypes = getDependencyTypes(moduleType, moduleFactory);
+            dependencyTypes.forEach(this::getInjector);
+            final InjectorImpl injectorImpl = new InjectorImpl(this, parentInjectorImpl, scopingFactoryRegistry,
+                    moduleType, dependencyTypes);
+            configure(injectorImpl, moduleFactory);
+            childInjectorImpls.add(injectorImpl);
+            if (eagerSingletonExecutor != null) {
+                EagerSingletons.instantiate(injectorImpl, eagerSingletonExecutor);
+            }
+            return injectorImpl;
+        } finally {
+            tracer.end();
+        }
+    }
+
+    private ModuleFactory getModuleFactoryOrNull(final Class<? extends Module> moduleType) {
+        // a generated factory wins, the snapshot is not validated for nothing.
+        final ModuleFactory generatedFactory = ModuleFactories.getModuleFactoryOrNull(moduleType);
+        // a module matching the snapshot has the dependencies of an acyclic graph, its check is skipped.
+        final ModuleFactory snapshotFactory = (generatedFactory == null && snapshot != null
+                ? snapshot.getModuleFactoryOrNull(moduleType, invokerFactory) : null);
+        if (snapshotFactory == null) {
             InjectionUtils.checkModuleCircularity(moduleType);
-            final Collection<Class<? extends Module>> dependencyTypes = InjectionUtils.getDependencyTypes(moduleType);
-            dependencyTypes.forEach(this::getInjectorInternal);
-            injectorImpl = new InjectorImpl(this, null, scopingFactoryRegistry, moduleType, dependencyTypes);
-            injectorImplByModuleType.put(moduleType, injectorImpl);
-            final Module moduleInstance = injectorImpl.newInstance(moduleType, false);
-            logger.trace("configuring injector for {}", moduleType.getName());
-            injectorImpl.setModuleInstance(moduleInstance);
-            injectorImpl.bindProviderMethods();
-            injectorImpl.injectMembers(moduleInstance);
-        }
-        return injectorImpl;
+        }
+        return (generatedFactory != null ? generatedFactory : snapshotFactory);
+    }
+
+    static Collection<Class<? extends Module>> getDependencyTypes(final Class<? extends Module> moduleType,
+                                                                  final ModuleFactory moduleFactory) {
+        return (moduleFactory != null
+                ? moduleFactory.getDependencyTypes() : InjectionUtils.getDependencyTypes(moduleType));
+    }
+
+    private void configure(final InjectorImpl injectorImpl, final ModuleFactory moduleFactory) {
+        final ModuleConfiguredEvent event = new ModuleConfiguredEvent();
+        event.begin();
+        final Class<? extends Module> moduleType = injectorImpl.getModuleType();
+        final Module moduleInstance = (moduleFactory != null
+                ? moduleFactory.newModule() : injectorImpl.newInstance(moduleType, false));
+        logger.trace("configuring injector for {}", moduleType.getName());
+        injectorImpl.setModuleInstance(moduleInstance);
+        injectorImpl.bindProviderMethods(moduleFactory);
+        injectorImpl.injectMembers(moduleInstance);
+        if (event.shouldCommit()) {
+            event.moduleType = moduleType;
+            event.bindings = injectorImpl.getLocalBindingImpls().size();
+            event.commit();
+        }
+    }
+
+    // children come first, a child singleton is closed before the parent singletons it depends on. thread scoped
+    // instances are released last, pooled threads would keep them reachable otherwise.
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            try {
+                closeSingletons();
+            } finally {
+                for (final ScopingFactory<?> scopingFactory : scopingFactoryRegistry.getScopingFactories()) {
+                    if (scopingFactory instanceof ThreadScopingFactory) {
+                        ((ThreadScopingFactory) scopingFactory).clear();
+                    }
+                }
+            }
+        }
+    }
+
+    private void closeSingletons() {
+        final Collection<InjectorImpl> injectorImpls;
+        synchronized (childInjectorImpls) {
+            injectorImpls = new ArrayList<>(childInjectorImpls);
+        }
+        injectorImpls.addAll(injectorImplByModuleType.values());
+        if (closeExecutor != null) {
+            SingletonCloser.close(injectorImpls, invokerFactory, closeExecutor, closeTimeoutNanos);
+            return;
+        }
+        final ExecutorService executor = Executors.newCachedThreadPool((runnable) -> {
+            final Thread thread = new Thread(runnable, "injection-close");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            SingletonCloser.close(injectorImpls, invokerFactory, executor, closeTimeoutNanos);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void dumpInstrumentation(final Appendable out) throws IOException {
+        instrumentation.dump(out);
+    }
+
+    @Override
+    public void exportTrace(final Appendable out) throws IOException {
+        tracer.export(out);
+    }
+
+    @Override
+    public void writeSnapshot(final OutputStream out) throws IOException {
+        BindingGraphSnapshot.of(injectorImplByModuleType.values()).write(out);
+    }
+
+    @Override
+    public ScopeContext openScope() {
+        final ScopingFactory<RequestScoped> scopingFactory
+                = scopingFactoryRegistry.getScopingFactoryByAnnotationType(RequestScoped.class);
+        if (!(scopingFactory instanceof RequestScopingFactory)) {
+            throw new ScopeException("cannot open request scopes of %s", scopingFactory.getClass().getName());
+        }
+        return ((RequestScopingFactory) scopingFactory).openScope();
+    }
+
+    Instrumentation getInstrumentation() {
+        return instrumentation;
+    }
+
+    Tracer getTracer() {
+        return tracer;
+    }
+
+    InvokerFactory getInvokerFactory() {
+        return invokerFactory;
+    }
+
+    InjectionPoints getInjectionPoints(final Class<?> type) {
+        return injectionPointsByType.get(type);
+    }
+
+    int getGeneration() {
+        return generation.get();
+    }
+
+    void invalidateResolutions() {
+        generation.incrementAndGet();
+    }
+
+    private void publish(final InjectorImpl injectorImpl, final Collection<Class<? extends Module>> dependencyTypes) {
+        final Class<? extends Module> moduleType = injectorImpl.getModuleType();
+        injectorImplByModuleType.put(moduleType, injectorImpl);
+        dependencyTypes.forEach((dependencyType) -> getInjector(dependencyType).addChildType(moduleType));
+        invalidateResolutions();
     }
 }
@@ -0,0 +1,84 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.InjectionUtils;
+import org.dru.dusap.inject.Invoker;
+import org.dru.dusap.inject.InvokerFactory;
+import org.dru.dusap.inject.Key;
+
+import javax.inject.Inject;
+import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+final class InjectionPoints {
+    private static final Predicate<AnnotatedElement> INJECT_ANNOTATED
+            = (elem) -> (elem.getAnnotation(Inject.class) != null);
+
+    private final FieldPoint[] fieldPoints;
+    private final MethodPoint[] methodPoints;
+
+    InjectionPoints(final Class<?> type, final InvokerFactory invokerFactory) {
+        fieldPoints = InjectionUtils.getDeclaredFields(type, INJECT_ANNOTATED).stream()
+                .map((field) -> new FieldPoint(Key.of(field.getGenericType(), field),
+                        invokerFactory.getFieldSetter(field)))
+                .toArray(FieldPoint[]::new);
+        methodPoints = InjectionUtils.getDeclaredMethods(type, INJECT_ANNOTATED).stream()
+                .map((method) -> new MethodPoint(Key.of(method), invokerFactory.getMethodInvoker(method)))
+                .toArray(MethodPoint[]::new);
+    }
+
+    boolean isEmpty() {
+        return (fieldPoints.length == 0 && methodPoints.length == 0);
+    }
+
+    List<Key<?>> getKeys() {
+        final List<Key<?>> result = new ArrayList<>();
+        for (final FieldPoint fieldPoint : fieldPoints) {
+            result.add(fieldPoint.key);
+        }
+        for (final MethodPoint methodPoint : methodPoints) {
+            result.addAll(Arrays.asList(methodPoint.keys));
+        }
+        return result;
+    }
+
+    void injectFields(final InjectorImpl injector, final Object instance) {
+        for (final FieldPoint fieldPoint : fieldPoints) {
+            fieldPoint.setter.accept(instance, injector.resolveBinding(fieldPoint.key).getInstance());
+        }
+    }
+
+    void injectMethods(final InjectorImpl injector, final Object instance) {
+        for (final MethodPoint methodPoint : methodPoints) {
+            final Key<?>[] keys = methodPoint.keys;
+            final Object[] args = new Object[keys.length];
+            for (int index = 0; index < keys.length; index++) {
+                args[index] = injector.resolveBinding(keys[index]).getInstance();
+            }
+            methodPoint.invoker.invoke(instance, args);
+        }
+    }
+
+    private static final class FieldPoint {
+        private final Key<?> key;
+        private final BiConsumer<Object, Object> setter;
+
+        FieldPoint(final Key<?> key, final BiConsumer<Object, Object> setter) {
+            this.key = key;
+            this.setter = setter;
+        }
+    }
+
+    private static final class MethodPoint {
+        private final Key<?>[] keys;
+        private final Invoker invoker;
+
+        MethodPoint(final Key<?>[] keys, final Invoker invoker) {
+            this.keys = keys;
+            this.invoker = invoker;
+        }
+    }
+}
@@ -1,25 +1,28 @@
 package org.dru.dusap.inject.internal;
 
 import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
 
-import javax.inject.Inject;
 import javax.inject.Provider;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.AnnotatedElement;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public final class InjectorImpl implements Injector {
-    private static final Predicate<AnnotatedElement> INJECT_ANNOTATED
-            = (elem) -> (elem.getAnnotation(Inject.class) != null);
     private static final Predicate<Method> PROVIDES_ANNOTATED
             = (method) -> (method.getAnnotation(Provides.class) != null);
+    private static final Object UNRESOLVED = new Object();
 
     private final InjectionImpl injectionImpl;
     private final InjectorImpl parentInjectorImpl;
@@ -27,7 +30,17 @@ public final class InjectorImpl implements Injector {
     private final Class<? extends Module> moduleType;
     private final Set<Class<? extends Module>> dependencyTypes;
     private final Set<Class<? extends Module>> childTypes;
+    private final Tracer tracer;
     private final Map<Key<?>, BindingImpl<?>> bindingImplByKey;
+    // @IntoSet and @IntoMap bindings by the key of their collection, in binding order.
+    private final Map<Key<?>, List<BindingImpl<?>>> contributionsByKey;
+    // contributions never change once the injector is configured, nor does a collection binding made of them.
+    private final Map<Key<?>, BindingImpl<?>> multibindingByKey;
+    // in binding order, only appended to while the injector is being configured.
+    private final List<Method> providerMethods;
+    private volatile Resolutions resolutions;
+    // set once the provider methods are bound, contributions asked for before then may still be missing.
+    private volatile boolean bound;
     private Module moduleInstance;
 
     InjectorImpl(final InjectionImpl injectionImpl, final InjectorImpl parentInjectorImpl,
@@ -37,13 +50,17 @@ public final class InjectorImpl implements Injector {
         this.parentInjectorImpl = parentInjectorImpl;
         this.scopingFactoryRegistry = scopingFactoryRegistry;
         this.moduleType = moduleType;
-        this.dependencyTypes = new HashSet<>(dependencyTypes);
+        this.dependencyTypes = new LinkedHashSet<>(dependencyTypes);
         childTypes = ConcurrentHashMap.newKeySet();
+        tracer = injectionImpl.getTracer();
         bindingImplByKey = new ConcurrentHashMap<>();
+        contributionsByKey = new ConcurrentHashMap<>();
+        multibindingByKey = new ConcurrentHashMap<>();
+        providerMethods = new ArrayList<>();
+        resolutions = new Resolutions(injectionImpl.getGeneration());
         final Key<Injector> key = Key.of(Injector.class, null);
         final Provider<Injector> provider = () -> this;
         bindingImplByKey.put(key, new BindingImpl<>(key, false, provider, Scopings.NO_SCOPING));
-        dependencyTypes.forEach(dependencyType -> injectionImpl.getInjector(dependencyType).childTypes.add(moduleType));
     }
 
     @Override
@@ -53,12 +70,17 @@ public final class InjectorImpl implements Injector {
 
     @Override
     public List<Binding<?>> getLocalBindings() {
-        return new ArrayList<>(bindingImplByKey.values());
+        return new ArrayList<>(getLocalBindingImpls());
     }
 
     @Override
     public List<Binding<?>> getBindings() {
         final List<Binding<?>> result = getLocalBindings();
+        if (parentInjectorImpl != null) {
+            result.addAll(parentInjectorImpl.getBindings().stream()
+                    .filter(Binding::isExposed)
+                    .collect(Collectors.toList()));
+        }
         InjectionUtils.getDependencyTypes(getModuleType()).forEach(dependencyType -> {
             final Injector dependencyInjector = injectionImpl.getInjector(dependencyType);
             result.addAll(dependencyInjector.getBindings().stream()
@@ -69,19 +91,9 @@ public final class InjectorImpl implements Injector {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <T> T getInstance(final Key<T> key) {
         Objects.requireNonNull(key, "key");
-        final Class<? extends Module> sourceType = key.getSourceTypeOrDefault(moduleType);
-        final InjectorImpl injector = injectionImpl.getInjector(sourceType);
-        if (injector != this && !dependencyTypes.contains(injector.getModuleType())) {
-            throw new DependencyException("illegal dependency: %s", injector.getModuleType().getName());
-        }
-        final BindingImpl<?> binding = injector.getBindingOrNull(key.withoutSource());
-        if (binding == null) {
-            throw new BindingException("no such binding: %s", key);
-        }
-        return (T) binding.getInstance();
+        return resolveBinding(key).getInstance();
     }
 
     @Override
@@ -89,11 +101,39 @@ public final class InjectorImpl implements Injector {
         return getInstance(Key.of(type, null));
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> CompletionStage<T> getInstanceAsync(final Key<T> key) {
+        Objects.requireNonNull(key, "key");
+        final BindingImpl<T> binding = resolveBinding(key);
+        try {
+            if (binding.getProvider() instanceof AwaitProvider) {
+                return (CompletionStage<T>) ((AwaitProvider<T>) binding.getProvider()).getStage();
+            }
+            return CompletableFuture.completedFuture(binding.getInstance());
+        } catch (final RuntimeException exc) {
+            final CompletableFuture<T> result = new CompletableFuture<>();
+            result.completeExceptionally(exc);
+            return result;
+        }
+    }
+
+    @Override
+    public <T> CompletionStage<T> getInstanceAsync(final Class<T> type) {
+        return getInstanceAsync(Key.of(type, null));
+    }
+
+    @Override
+    public Injector newInjector(final Class<? extends Module> moduleType) {
+        Objects.requireNonNull(moduleType, "moduleType");
+        return injectionImpl.newChildInjector(this, moduleType);
+    }
+
     @Override
     public <T> T newInstance(final Constructor<T> constructor, final boolean injectMembers) {
         final Key<?>[] keys = Key.of(constructor);
         final Object[] initargs = getInstances(keys);
-        final T instance = InjectionUtils.newInstance(constructor, initargs);
+        final T instance = newInstance(constructor, initargs);
         if (injectMembers) {
             injectMembers(instance);
         }
@@ -107,34 +147,84 @@ public final class InjectorImpl implements Injector {
 
     @Override
     public void injectField(final Object instance, final Field field) {
-        final Key<?> key = Key.of(field.getType(), field);
+        final Key<?> key = Key.of(field.getGenericType(), field);
         final Object value = getInstance(key);
-        InjectionUtils.setFieldValue(instance, field, value);
+        Objects.requireNonNull(instance, "instance");
+        injectionImpl.getInvokerFactory().getFieldSetter(field).accept(instance, value);
     }
 
     @Override
     public void injectFields(final Object instance) {
-        final Class<?> type = instance.getClass();
-        InjectionUtils.getDeclaredFields(type, INJECT_ANNOTATED).forEach((field) -> injectField(instance, field));
+        injectionImpl.getInjectionPoints(instance.getClass()).injectFields(this, instance);
     }
 
     @Override
     public Object injectMethod(final Object instance, final Method method) {
         final Key<?>[] keys = Key.of(method);
         final Object[] args = getInstances(keys);
-        return InjectionUtils.invokeMethod(instance, method, args);
+        return invokeMethod(instance, method, args);
     }
 
     @Override
     public void injectMethods(final Object instance) {
-        final Class<?> type = instance.getClass();
-        InjectionUtils.getDeclaredMethods(type, INJECT_ANNOTATED).forEach((method) -> injectMethod(instance, method));
+        injectionImpl.getInjectionPoints(instance.getClass()).injectMethods(this, instance);
     }
 
     @Override
     public void injectMembers(final Object instance) {
-        injectFields(instance);
-        injectMethods(instance);
+        final InjectionPoints injectionPoints = injectionImpl.getInjectionPoints(instance.getClass());
+        if (!injectionPoints.isEmpty()) {
+            tracer.begin("inject", instance.getClass());
+            try {
+                injectionPoints.injectFields(this, instance);
+                injectionPoints.injectMethods(this, instance);
+            } finally {
+                tracer.end();
+            }
+        }
+    }
+
+    Tracer getTracer() {
+        return tracer;
+    }
+
+    InjectionPoints getInjectionPoints(final Class<?> type) {
+        return injectionImpl.getInjectionPoints(type);
+    }
+
+    Collection<BindingImpl<?>> getLocalBindingImpls() {
+        if (contributionsByKey.isEmpty()) {
+            return Collections.unmodifiableCollection(bindingImplByKey.values());
+        }
+        final List<BindingImpl<?>> result = new ArrayList<>(bindingImplByKey.values());
+        contributionsByKey.values().forEach(result::addAll);
+        return Collections.unmodifiableList(result);
+    }
+
+    List<Method> getProviderMethods() {
+        return Collections.unmodifiableList(providerMethods);
+    }
+
+    int getGeneration() {
+        return injectionImpl.getGeneration();
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T newInstance(final Constructor<T> constructor, final Object[] initargs) {
+        return (T) injectionImpl.getInvokerFactory().getConstructorInvoker(constructor).invoke(null, initargs);
+    }
+
+    Object invokeMethod(final Object instance, final Method method, final Object[] args) {
+        Objects.requireNonNull(instance, "instance");
+        return injectionImpl.getInvokerFactory().getMethodInvoker(method).invoke(instance, args);
+    }
+
+    Invoker getMethodInvoker(final Method method) {
+        return injectionImpl.getInvokerFactory().getMethodInvoker(method);
+    }
+
+    void addChildType(final Class<? extends Module> childType) {
+        childTypes.add(childType);
     }
 
     void setModuleInstance(final Module moduleInstance) {
@@ -146,6 +236,137 @@ public final class InjectorImpl implements Injector {
         return (BindingImpl<T>) bindingImplByKey.get(key);
     }
 
+    <T> BindingImpl<T> resolveBinding(final Key<T> key) {
+        final BindingImpl<T> binding = lookupBinding(key);
+        if (binding == null) {
+            throw new BindingException("no such binding: %s", key);
+        }
+        return binding;
+    }
+
+    // resolved bindings, negative ones too, are cached until the injection moves to a new generation.
+    @SuppressWarnings("unchecked")
+    <T> BindingImpl<T> lookupBinding(final Key<T> key) {
+        Resolutions current = resolutions;
+        final int generation = injectionImpl.getGeneration();
+        if (current.generation != generation) {
+            current = new Resolutions(generation);
+            resolutions = current;
+        }
+        Object resolved = current.bindings.get(key);
+        if (resolved == null) {
+            final BindingLookupMissEvent event = new BindingLookupMissEvent();
+            event.begin();
+            // resolved against the state of the generation read above, a stale result is dropped with its map.
+            final BindingImpl<T> binding = resolveBindingOrNull(key);
+            resolved = (binding != null ? binding : UNRESOLVED);
+            current.bindings.putIfAbsent(key, resolved);
+            if (event.shouldCommit()) {
+                event.moduleType = moduleType;
+                event.key = key.toString();
+                event.found = (binding != null);
+                event.commit();
+            }
+        }
+        return (resolved != UNRESOLVED ? (BindingImpl<T>) resolved : null);
+    }
+
+    private <T> BindingImpl<T> resolveBindingOrNull(final Key<T> key) {
+        final Class<? extends Module> sourceType = key.getSourceTypeOrDefault(moduleType);
+        final InjectorImpl injector = (sourceType == moduleType ? this : injectionImpl.getInjector(sourceType));
+        if (injector != this && !dependencyTypes.contains(injector.getModuleType())) {
+            throw new DependencyException("illegal dependency: %s", injector.getModuleType().getName());
+        }
+        BindingImpl<T> binding = injector.getBindingOrNull(key.withoutSource());
+        if (binding == null && injector == this) {
+            binding = getMultibindingOrNull(key);
+        }
+        return (binding != null ? binding : getHandleBindingOrNull(key));
+    }
+
+    // the collection of the contributions of this injector, and the exposed ones of its parent and dependencies.
+    // scoped as the contributions when they all share scope, so a collection of singletons is built only once.
+    @SuppressWarnings("unchecked")
+    private <T> BindingImpl<T> getMultibindingOrNull(final Key<T> key) {
+        if (!(key.getGenericType() instanceof ParameterizedType)) {
+            return null;
+        }
+        final Type rawType = ((ParameterizedType) key.getGenericType()).getRawType();
+        if (rawType != Set.class && rawType != Map.class) {
+            return null;
+        }
+        if (!bound) {
+            return (BindingImpl<T>) newMultibindingOrNull(key, rawType == Map.class);
+        }
+        return (BindingImpl<T>) multibindingByKey.computeIfAbsent(key,
+                ($) -> newMultibindingOrNull(key, rawType == Map.class));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private BindingImpl<?> newMultibindingOrNull(final Key<?> key, final boolean map) {
+        final List<BindingImpl<?>> contributions = getContributions(key);
+        if (contributions.isEmpty()) {
+            return null;
+        }
+        Scoping scoping = contributions.get(0).getScoping();
+        for (final BindingImpl<?> contribution : contributions) {
+            if (contribution.getScoping() != scoping) {
+                scoping = Scopings.NO_SCOPING;
+            }
+        }
+        final Provider<?> provider = new MultibindingProvider<>(contributions.toArray(new BindingImpl<?>[0]), map);
+        return new BindingImpl(key, false, provider, scoping);
+    }
+
+    private List<BindingImpl<?>> getContributions(final Key<?> key) {
+        final List<BindingImpl<?>> result = new ArrayList<>(contributionsByKey.getOrDefault(key,
+                Collections.emptyList()));
+        for (final Class<? extends Module> dependencyType : dependencyTypes) {
+            for (final BindingImpl<?> contribution : injectionImpl.getInjector(dependencyType).contributionsByKey
+                    .getOrDefault(key, Collections.emptyList())) {
+                if (contribution.isExposed()) {
+                    result.add(contribution);
+                }
+            }
+        }
+        if (parentInjectorImpl != null) {
+            for (final BindingImpl<?> contribution : parentInjectorImpl.getContributions(key)) {
+                if (contribution.isExposed()) {
+                    result.add(contribution);
+                }
+            }
+        }
+        return result;
+    }
+
+    // Provider<T>, Lazy<T> and Lease<T> of any bound key, the handles call the resolved binding directly.
+    // a miss is not an error, a parent asked on behalf of a child leaves the handle to the child's own bindings.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T> BindingImpl<T> getHandleBindingOrNull(final Key<T> key) {
+        if (!(key.getGenericType() instanceof ParameterizedType)) {
+            return null;
+        }
+        final ParameterizedType type = (ParameterizedType) key.getGenericType();
+        final Type rawType = type.getRawType();
+        if (rawType != Provider.class && rawType != Lazy.class && rawType != Lease.class) {
+            return null;
+        }
+        final BindingImpl<?> binding = lookupBinding(key.withType(type.getActualTypeArguments()[0]));
+        if (binding == null) {
+            return null;
+        }
+        final Provider<?> provider;
+        if (rawType == Provider.class) {
+            final Provider<?> handle = binding::getInstance;
+            provider = () -> handle;
+        } else if (rawType == Lazy.class) {
+            provider = () -> new LazyImpl<>(binding);
+        } else {
+            provider = () -> new LeaseImpl<>(binding);
+        }
+        return new BindingImpl(key, false, new HandleProvider<>(binding, provider), Scopings.NO_SCOPING);
+    }
+
     <T> BindingImpl<T> getBindingOrNull(final Key<T> key) {
         return getBindingOrNull(key, new HashSet<>());
     }
@@ -157,7 +378,8 @@ public final class InjectorImpl implements Injector {
                 return binding;
             }
             if (parentInjectorImpl != null) {
-                binding = parentInjectorImpl.getBindingOrNull(key);
+                // shares the resolutions cached by the parent, and with them its scoped instances.
+                binding = parentInjectorImpl.lookupBinding(key);
                 if (binding != null && binding.isExposed()) {
                     return binding;
                 }
@@ -199,24 +421,102 @@ public final class InjectorImpl implements Injector {
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
-    void bindProviderMethods() {
-        InjectionUtils.getDeclaredMethods(moduleType, PROVIDES_ANNOTATED).forEach((method) -> {
-            final Key<?> key = Key.of(method.getGenericReturnType(), method);
-            final Binding<?> existing = bindingImplByKey.get(key);
-            if (existing != null) {
-                throw new BindingException("already bound: %s", existing);
-            }
-            final Provider<?> provider = new ProviderMethod<>(this, () -> moduleInstance, method);
-            final Annotation scope = InjectionUtils.getScopeAnnotation(method);
-            final Scoping scoping;
-            if (scope != null) {
-                scoping = scopingFactoryRegistry.getScoping(scope);
+    // provider methods are taken from the generated module factory when there is one.
+    void bindProviderMethods(final ModuleFactory moduleFactory) {
+        tracer.begin("bind", moduleType);
+        try {
+            if (moduleFactory != null) {
+                final List<Method> methods = moduleFactory.getProviderMethods();
+                final List<Invoker> invokers = moduleFactory.getProviderInvokers();
+                for (int index = 0; index < methods.size(); index++) {
+                    bindProviderMethod(methods.get(index), invokers.get(index));
+                }
             } else {
-                scoping = Scopings.NO_SCOPING;
+                InjectionUtils.getDeclaredMethods(moduleType, PROVIDES_ANNOTATED)
+                        .forEach((method) -> bindProviderMethod(method, getMethodInvoker(method)));
             }
-            final boolean exposed = (method.getAnnotation(Expose.class) != null);
-            final BindingImpl<?> binding = new BindingImpl(key, exposed, provider, scoping);
-            bindingImplByKey.put(key, binding);
-        });
+            // lookups made while the module was constructed predate its own bindings, children are never
+            // published so nothing else would drop them.
+            resolutions = new Resolutions(injectionImpl.getGeneration());
+            bound = true;
+        } finally {
+            tracer.end();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void bindProviderMethod(final Method method, final Invoker invoker) {
+        final Key<?> key = Key.of(method.getGenericReturnType(), method);
+        final Key<?> collectionKey = getCollectionKeyOrNull(method, key);
+        final Binding<?> existing = (collectionKey == null ? bindingImplByKey.get(key) : null);
+        if (existing != null) {
+            throw new BindingException("already bound: %s", existing);
+        }
+        final Annotation scope = InjectionUtils.getScopeAnnotation(method);
+        final Scoping scoping;
+        if (scope != null) {
+            scoping = scopingFactoryRegistry.getScoping(scope);
+        } else {
+            scoping = Scopings.NO_SCOPING;
+        }
+        final BindingProbe probe = injectionImpl.getInstrumentation().probe(key, scoping);
+        final Provider<?> provider = new ProviderMethod<>(this, () -> moduleInstance, method, invoker, key, scoping,
+                probe);
+        final boolean exposed = (method.getAnnotation(Expose.class) != null);
+        final BindingImpl<?> binding = new BindingImpl(key, exposed, provider, scoping, probe);
+        if (collectionKey != null) {
+            contributionsByKey.computeIfAbsent(collectionKey, ($) -> new ArrayList<>()).add(binding);
+            providerMethods.add(method);
+            return;
+        }
+        bindingImplByKey.put(key, binding);
+        if (ProviderMethod.isAsync(method)) {
+            // the value is bound too, awaited when it is asked for synchronously.
+            final Key<?> valueKey = key.withType(
+                    ((ParameterizedType) method.getGenericReturnType()).getActualTypeArguments()[0]);
+            final Binding<?> existingValue = bindingImplByKey.get(valueKey);
+            if (existingValue != null) {
+                throw new BindingException("already bound: %s", existingValue);
+            }
+            bindingImplByKey.put(valueKey, new BindingImpl(valueKey, exposed, new AwaitProvider(binding),
+                    Scopings.NO_SCOPING));
+        }
+        providerMethods.add(method);
+    }
+
+    // Set<T> of @IntoSet methods providing T, Map<K, V> of @IntoMap methods providing Map.Entry<K, V>.
+    private static Key<?> getCollectionKeyOrNull(final Method method, final Key<?> key) {
+        final boolean intoSet = (method.getAnnotation(IntoSet.class) != null);
+        final boolean intoMap = (method.getAnnotation(IntoMap.class) != null);
+        if (intoSet && intoMap) {
+            throw new BindingException("both @IntoSet and @IntoMap: %s", method.toGenericString());
+        }
+        if (intoSet) {
+            return key.withType(new ParameterizedTypeImpl(Set.class, getBoxedType(method.getGenericReturnType())));
+        }
+        if (intoMap) {
+            final Type type = method.getGenericReturnType();
+            if (!(type instanceof ParameterizedType) || ((ParameterizedType) type).getRawType() != Map.Entry.class) {
+                throw new BindingException("@IntoMap must provide a Map.Entry<K, V>: %s", method.toGenericString());
+            }
+            return key.withType(new ParameterizedTypeImpl(Map.class,
+                    ((ParameterizedType) type).getActualTypeArguments()));
+        }
+        return null;
+    }
+
+    private static Type getBoxedType(final Type type) {
+        return (type instanceof Class && ((Class<?>) type).isPrimitive()
+                ? MethodType.methodType((Class<?>) type).wrap().returnType() : type);
+    }
+
+    private static final class Resolutions {
+        private final int generation;
+        private final Map<Key<?>, Object> bindings;
+
+        Resolutions(final int generation) {
+            this.generation = generation;
+            bindings = new ConcurrentHashMap<>();
+        }
     }
 }
@@ -0,0 +1,37 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.BindingProbe;
+import org.dru.dusap.inject.Instrumentation;
+import org.dru.dusap.inject.Key;
+import org.dru.dusap.inject.Scoping;
+
+public enum Instrumentations implements Instrumentation {
+    // a single empty probe, its calls are inlined away as long as no other probe is in use.
+    NOOP {
+        @Override
+        public BindingProbe probe(final Key<?> key, final Scoping scoping) {
+            return NoopBindingProbe.INSTANCE;
+        }
+
+        @Override
+        public void dump(final Appendable out) {
+        }
+    };
+
+    enum NoopBindingProbe implements BindingProbe {
+        INSTANCE;
+
+        @Override
+        public void requested() {
+        }
+
+        @Override
+        public long provisionStarted() {
+            return 0L;
+        }
+
+        @Override
+        public void provisionFinished(final long token) {
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.InjectionException;
+import org.dru.dusap.inject.Invoker;
+import org.dru.dusap.inject.InvokerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.function.BiConsumer;
+
+public enum Invokers implements InvokerFactory {
+    REFLECTION {
+        @Override
+        public Invoker getConstructorInvoker(final Constructor<?> constructor) {
+            constructor.setAccessible(true);
+            return (target, args) -> {
+                try {
+                    return constructor.newInstance(args);
+                } catch (final InvocationTargetException exc) {
+                    throw rethrow(exc.getCause(), "failed to create new instance: %s", constructor.toGenericString());
+                } catch (final InstantiationException | IllegalAccessException exc) {
+                    throw rethrow(exc, "failed to create new instance: %s", constructor.toGenericString());
+                }
+            };
+        }
+
+        @Override
+        public Invoker getMethodInvoker(final Method method) {
+            method.setAccessible(true);
+            return (target, args) -> {
+                try {
+                    return method.invoke(target, args);
+                } catch (final InvocationTargetException exc) {
+                    throw rethrow(exc.getCause(), "failed to invoke method: %s", method.toGenericString());
+                } catch (final IllegalAccessException exc) {
+                    throw rethrow(exc, "failed to invoke method: %s", method.toGenericString());
+                }
+            };
+        }
+
+        @Override
+        public BiConsumer<Object, Object> getFieldSetter(final Field field) {
+            field.setAccessible(true);
+            return (target, value) -> {
+                try {
+                    field.set(target, value);
+                } catch (final IllegalAccessException exc) {
+                    throw rethrow(exc, "failed to set field: %s", field.toGenericString());
+                }
+            };
+        }
+    },
+    // method handles are looked up once per member and invoked exactly, members they cannot be created for
+    // (final fields, restricted access) fall back to reflection.
+    METHOD_HANDLE {
+        @Override
+        public Invoker getConstructorInvoker(final Constructor<?> constructor) {
+            final int count = constructor.getParameterCount();
+            final MethodHandle handle;
+            try {
+                constructor.setAccessible(true);
+                handle = LOOKUP.unreflectConstructor(constructor)
+                        .asType(MethodType.genericMethodType(count))
+                        .asSpreader(Object[].class, count);
+            } catch (final IllegalAccessException | RuntimeException exc) {
+                return REFLECTION.getConstructorInvoker(constructor);
+            }
+            return (target, args) -> {
+                try {
+                    return handle.invokeExact(args);
+                } catch (final Throwable exc) {
+                    throw rethrow(exc, "failed to create new instance: %s", constructor.toGenericString());
+                }
+            };
+        }
+
+        @Override
+        public Invoker getMethodInvoker(final Method method) {
+            final int count = method.getParameterCount();
+            final MethodHandle handle;
+            try {
+                method.setAccessible(true);
+                MethodHandle unreflected = LOOKUP.unreflect(method);
+                if (Modifier.isStatic(method.getModifiers())) {
+                    unreflected = MethodHandles.dropArguments(unreflected, 0, Object.class);
+                }
+                handle = unreflected
+                        .asType(MethodType.genericMethodType(count + 1))
+                        .asSpreader(Object[].class, count);
+            } catch (final IllegalAccessException | RuntimeException exc) {
+                return REFLECTION.getMethodInvoker(method);
+            }
+            return (target, args) -> {
+                try {
+                    return handle.invokeExact(target, args);
+                } catch (final Throwable exc) {
+                    throw rethrow(exc, "failed to invoke method: %s", method.toGenericString());
+                }
+            };
+        }
+
+        @Override
+        public BiConsumer<Object, Object> getFieldSetter(final Field field) {
+            final MethodHandle handle;
+            try {
+                field.setAccessible(true);
+                MethodHandle unreflected = LOOKUP.unreflectSetter(field);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    unreflected = MethodHandles.dropArguments(unreflected, 0, Object.class);
+                }
+                handle = unreflected.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (final IllegalAccessException | RuntimeException exc) {
+                return REFLECTION.getFieldSetter(field);
+            }
+            return (target, value) -> {
+                try {
+                    handle.invokeExact(target, value);
+                } catch (final Throwable exc) {
+                    throw rethrow(exc, "failed to set field: %s", field.toGenericString());
+                }
+            };
+        }
+    };
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    // unchecked exceptions of the member pass through, checked ones are wrapped, as in generated module factories.
+    private static RuntimeException rethrow(final Throwable exc, final String message, final String member) {
+        if (exc instanceof RuntimeException) {
+            return (RuntimeException) exc;
+        }
+        if (exc instanceof Error) {
+            throw (Error) exc;
+        }
+        return new InjectionException(message, exc, member);
+    }
+}
@@ -0,0 +1,69 @@
+package org.dru.dusap.inject.internal;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+// log-linear buckets in the manner of HdrHistogram: every power of two range is split into sub buckets, recording
+// is a single atomic increment and values are kept within 1 / 2^(SUB_BUCKET_BITS - 1) of their bucket.
+final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_BITS = SUB_BUCKET_BITS - 1;
+    private static final int LENGTH = getIndex(Long.MAX_VALUE) + 1;
+
+    static int getIndex(final long value) {
+        final int bucket = 63 - Long.numberOfLeadingZeros(value | (SUB_BUCKET_COUNT - 1)) - SUB_BUCKET_HALF_BITS;
+        return (bucket << SUB_BUCKET_HALF_BITS) + (int) (value >>> bucket);
+    }
+
+    static long getLowestEquivalentValue(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int bucket = (index >> SUB_BUCKET_HALF_BITS) - 1;
+        return (long) (index - (bucket << SUB_BUCKET_HALF_BITS)) << bucket;
+    }
+
+    private final AtomicLongArray counts;
+    private final LongAccumulator max;
+
+    LatencyHistogram() {
+        counts = new AtomicLongArray(LENGTH);
+        max = new LongAccumulator(Math::max, 0L);
+    }
+
+    void record(final long value) {
+        final long clamped = Math.max(0L, value);
+        counts.incrementAndGet(getIndex(clamped));
+        max.accumulate(clamped);
+    }
+
+    long getTotalCount() {
+        long result = 0;
+        for (int index = 0; index < LENGTH; index++) {
+            result += counts.get(index);
+        }
+        return result;
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    // the highest value equivalent to the recorded value at the percentile, 0 when nothing is recorded.
+    long getValueAtPercentile(final double percentile) {
+        final long totalCount = getTotalCount();
+        if (totalCount == 0) {
+            return 0L;
+        }
+        final long target = Math.max(1L, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long count = 0;
+        for (int index = 0; index < LENGTH; index++) {
+            count += counts.get(index);
+            if (count >= target) {
+                return Math.min(getLowestEquivalentValue(index + 1) - 1, getMax());
+            }
+        }
+        return getMax();
+    }
+}
@@ -0,0 +1,34 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.Lazy;
+
+final class LazyImpl<T> implements Lazy<T> {
+    private final BindingImpl<? extends T> binding;
+    private volatile boolean initialized;
+    private T instance;
+
+    LazyImpl(final BindingImpl<? extends T> binding) {
+        this.binding = binding;
+    }
+
+    @Override
+    public T get() {
+        if (!initialized) {
+            synchronized (this) {
+                if (!initialized) {
+                    instance = binding.getInstance();
+                    initialized = true;
+                }
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public String toString() {
+        return "Lazy{" +
+                "binding=" + binding +
+                ", initialized=" + initialized +
+                '}';
+    }
+}
@@ -0,0 +1,39 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.Lease;
+import org.dru.dusap.inject.ScopeException;
+
+final class LeaseImpl<T> implements Lease<T> {
+    private final BindingImpl<T> binding;
+    private T instance;
+    private boolean borrowed;
+    private boolean closed;
+
+    LeaseImpl(final BindingImpl<T> binding) {
+        this.binding = binding;
+    }
+
+    @Override
+    public T get() {
+        if (closed) {
+            throw new ScopeException("lease closed: %s", binding.getKey());
+        }
+        if (!borrowed) {
+            instance = binding.getInstance();
+            borrowed = true;
+        }
+        return instance;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            if (borrowed && binding.getScopedProvider() instanceof PooledProvider) {
+                ((PooledProvider<T>) binding.getScopedProvider()).release(instance);
+            }
+            instance = null;
+        }
+    }
+}
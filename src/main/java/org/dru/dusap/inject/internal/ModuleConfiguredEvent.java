@@ -0,0 +1,19 @@
+package org.dru.dusap.inject.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.dru.dusap.inject.ModuleConfigured")
+@Label("Module Configured")
+@Description("Module instantiated, its provider methods bound and its members injected")
+@Category({"Dusap", "Injection"})
+final class ModuleConfiguredEvent extends Event {
+    @Label("Module Type")
+    Class<?> moduleType;
+
+    @Label("Bindings")
+    int bindings;
+}
@@ -0,0 +1,50 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.DependencyException;
+import org.dru.dusap.inject.Module;
+import org.dru.dusap.inject.ModuleFactory;
+
+import java.util.Optional;
+
+final class ModuleFactories {
+    private static final String SUFFIX = "_ModuleFactory";
+    private static final ClassValue<Optional<ModuleFactory>> MODULE_FACTORIES
+            = new ClassValue<Optional<ModuleFactory>>() {
+        @Override
+        protected Optional<ModuleFactory> computeValue(final Class<?> type) {
+            return loadModuleFactory(type);
+        }
+    };
+
+    // the generated factory of the module type, null when there is none and reflection has to be used.
+    static ModuleFactory getModuleFactoryOrNull(final Class<? extends Module> moduleType) {
+        return MODULE_FACTORIES.get(moduleType).orElse(null);
+    }
+
+    static String getModuleFactoryName(final Class<?> moduleType) {
+        final String packageName = (moduleType.getPackage() != null ? moduleType.getPackage().getName() : "");
+        final String simpleName = moduleType.getName().substring(packageName.isEmpty() ? 0 : packageName.length() + 1);
+        return (packageName.isEmpty() ? "" : packageName + ".") + simpleName.replace('$', '_') + SUFFIX;
+    }
+
+    private static Optional<ModuleFactory> loadModuleFactory(final Class<?> moduleType) {
+        final Class<?> factoryType;
+        try {
+            factoryType = Class.forName(getModuleFactoryName(moduleType), false, moduleType.getClassLoader());
+        } catch (final ClassNotFoundException exc) {
+            return Optional.empty();
+        }
+        if (!ModuleFactory.class.isAssignableFrom(factoryType)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((ModuleFactory) factoryType.getDeclaredConstructor().newInstance());
+        } catch (final ReflectiveOperationException exc) {
+            throw new DependencyException("failed to create module factory: %s", exc, factoryType.getName());
+        }
+    }
+
+    private ModuleFactories() throws InstantiationException {
+        throw new InstantiationException();
+    }
+}
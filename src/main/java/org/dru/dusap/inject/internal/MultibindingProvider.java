@@ -0,0 +1,66 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.BindingException;
+import org.dru.dusap.inject.InjectionException;
+
+import javax.inject.Provider;
+import java.util.Arrays;
+import java.util.Map;
+
+// provides the Set<T> or Map<K, V> of the contributions, collected once when the binding was resolved. each get
+// provisions the contributions and indexes them in arrays, scoped as the contributions are when they all share scope.
+final class MultibindingProvider<T> implements Provider<T> {
+    private final BindingImpl<?>[] contributions;
+    private final boolean map;
+
+    MultibindingProvider(final BindingImpl<?>[] contributions, final boolean map) {
+        this.contributions = contributions;
+        this.map = map;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T get() {
+        return (T) (map ? getMap() : getSet());
+    }
+
+    private ArraySet<?> getSet() {
+        final Object[] elements = new Object[contributions.length];
+        for (int index = 0; index < contributions.length; index++) {
+            elements[index] = contributions[index].getInstance();
+            if (elements[index] == null) {
+                throw new InjectionException("null contributed: %s", contributions[index]);
+            }
+        }
+        return new ArraySet<>(new ArrayIndex(elements));
+    }
+
+    private ArrayMap<?, ?> getMap() {
+        final Object[] keys = new Object[contributions.length];
+        final Object[] values = new Object[contributions.length];
+        for (int index = 0; index < contributions.length; index++) {
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) contributions[index].getInstance();
+            if (entry == null || entry.getKey() == null || entry.getValue() == null) {
+                throw new InjectionException("null contributed: %s", contributions[index]);
+            }
+            keys[index] = entry.getKey();
+            values[index] = entry.getValue();
+        }
+        final ArrayIndex index = new ArrayIndex(keys);
+        if (index.size() != keys.length) {
+            for (int position = 0; position < keys.length; position++) {
+                if (index.indexOf(keys[position]) != position) {
+                    throw new BindingException("duplicate key %s: %s", keys[position], contributions[position]);
+                }
+            }
+        }
+        return new ArrayMap<>(index, values);
+    }
+
+    @Override
+    public String toString() {
+        return "Multibinding{" +
+                "contributions=" + Arrays.toString(contributions) +
+                '}';
+    }
+}
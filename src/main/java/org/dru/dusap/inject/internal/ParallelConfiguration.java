@@ -0,0 +1,81 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.InjectionException;
+import org.dru.dusap.inject.Module;
+import org.dru.dusap.inject.ModuleFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+final class ParallelConfiguration {
+    // configures the module type and every dependency not yet configured, each one as soon as all of its
+    // dependencies are. modules are scheduled and failures reported in dependency declaration order whatever order
+    // they complete in, a failed module only stops the modules depending on it. the module factory of each module
+    // is looked up once, before its dependencies are, and the circularity check comes with it.
+    static void configure(final Class<? extends Module> moduleType,
+                          final Predicate<Class<? extends Module>> configured,
+                          final Function<Class<? extends Module>, ModuleFactory> moduleFactories,
+                          final BiConsumer<Class<? extends Module>, ModuleFactory> configurer,
+                          final Executor executor) {
+        final Map<Class<? extends Module>, CompletableFuture<Void>> futureByModuleType = new LinkedHashMap<>();
+        schedule(moduleType, configured, moduleFactories, configurer, executor, futureByModuleType);
+        final CompletableFuture<?>[] futures = futureByModuleType.values().toArray(new CompletableFuture<?>[0]);
+        CompletableFuture.allOf(futures).exceptionally(($) -> null).join();
+        // dependants fail with the very exception of the failed dependency, each failure is reported once.
+        final Set<Throwable> failures = Collections.newSetFromMap(new IdentityHashMap<>());
+        final List<Throwable> ordered = new ArrayList<>();
+        for (final CompletableFuture<?> future : futures) {
+            if (future.isCompletedExceptionally()) {
+                try {
+                    future.join();
+                } catch (final CompletionException exc) {
+                    if (failures.add(exc.getCause())) {
+                        ordered.add(exc.getCause());
+                    }
+                }
+            }
+        }
+        if (ordered.size() == 1 && ordered.get(0) instanceof RuntimeException) {
+            throw (RuntimeException) ordered.get(0);
+        }
+        if (!ordered.isEmpty()) {
+            final InjectionException exc = new InjectionException("failed to configure %d module(s) of %s",
+                    ordered.get(0), ordered.size(), moduleType.getName());
+            ordered.stream().skip(1).forEach(exc::addSuppressed);
+            throw exc;
+        }
+    }
+
+    private static CompletableFuture<Void> schedule(
+            final Class<? extends Module> moduleType, final Predicate<Class<? extends Module>> configured,
+            final Function<Class<? extends Module>, ModuleFactory> moduleFactories,
+            final BiConsumer<Class<? extends Module>, ModuleFactory> configurer, final Executor executor,
+            final Map<Class<? extends Module>, CompletableFuture<Void>> futureByModuleType) {
+        CompletableFuture<Void> future = futureByModuleType.get(moduleType);
+        if (future != null) {
+            return future;
+        }
+        if (configured.test(moduleType)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final ModuleFactory moduleFactory = moduleFactories.apply(moduleType);
+        final CompletableFuture<?>[] dependencyFutures = InjectionImpl.getDependencyTypes(moduleType, moduleFactory)
+                .stream()
+                .map((dependencyType) -> schedule(dependencyType, configured, moduleFactories, configurer, executor,
+                        futureByModuleType))
+                .toArray(CompletableFuture<?>[]::new);
+        future = CompletableFuture.allOf(dependencyFutures)
+                .thenRunAsync(() -> configurer.accept(moduleType, moduleFactory), executor);
+        futureByModuleType.put(moduleType, future);
+        return future;
+    }
+
+    private ParallelConfiguration() throws InstantiationException {
+        throw new InstantiationException();
+    }
+}
@@ -0,0 +1,54 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.Key;
+
+import java.util.Arrays;
+
+final class ParameterBindings {
+    private final InjectorImpl injector;
+    private final Key<?>[] keys;
+    private volatile Resolved resolved;
+
+    ParameterBindings(final InjectorImpl injector, final Key<?>[] keys) {
+        this.injector = injector;
+        this.keys = keys;
+    }
+
+    BindingImpl<?>[] getBindings() {
+        Resolved current = resolved;
+        final int generation = injector.getGeneration();
+        if (current == null || current.generation != generation) {
+            final BindingImpl<?>[] bindings = new BindingImpl<?>[keys.length];
+            for (int index = 0; index < keys.length; index++) {
+                bindings[index] = injector.resolveBinding(keys[index]);
+            }
+            current = new Resolved(generation, bindings);
+            resolved = current;
+        }
+        return current.bindings;
+    }
+
+    Object[] getInstances() {
+        final BindingImpl<?>[] bindings = getBindings();
+        final Object[] instances = new Object[bindings.length];
+        for (int index = 0; index < bindings.length; index++) {
+            instances[index] = bindings[index].getInstance();
+        }
+        return instances;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(keys);
+    }
+
+    private static final class Resolved {
+        private final int generation;
+        private final BindingImpl<?>[] bindings;
+
+        Resolved(final int generation, final BindingImpl<?>[] bindings) {
+            this.generation = generation;
+            this.bindings = bindings;
+        }
+    }
+}
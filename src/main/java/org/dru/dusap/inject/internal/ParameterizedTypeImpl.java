@@ -0,0 +1,57 @@
+package org.dru.dusap.inject.internal;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// equal to, and hashed like, the parameterized types of the runtime, so keys made of either match.
+final class ParameterizedTypeImpl implements ParameterizedType {
+    private final Class<?> rawType;
+    private final Type[] actualTypeArguments;
+
+    ParameterizedTypeImpl(final Class<?> rawType, final Type... actualTypeArguments) {
+        Objects.requireNonNull(rawType, "rawType");
+        this.rawType = rawType;
+        this.actualTypeArguments = actualTypeArguments.clone();
+    }
+
+    @Override
+    public Type[] getActualTypeArguments() {
+        return actualTypeArguments.clone();
+    }
+
+    @Override
+    public Type getRawType() {
+        return rawType;
+    }
+
+    @Override
+    public Type getOwnerType() {
+        return rawType.getDeclaringClass();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ParameterizedType)) return false;
+        final ParameterizedType that = (ParameterizedType) o;
+        return rawType.equals(that.getRawType()) &&
+                Objects.equals(getOwnerType(), that.getOwnerType()) &&
+                Arrays.equals(actualTypeArguments, that.getActualTypeArguments());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(actualTypeArguments) ^ Objects.hashCode(getOwnerType()) ^ rawType.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return rawType.getName() + Stream.of(actualTypeArguments)
+                .map(Type::getTypeName)
+                .collect(Collectors.joining(", ", "<", ">"));
+    }
+}
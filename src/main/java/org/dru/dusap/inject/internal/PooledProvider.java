@@ -0,0 +1,56 @@
+package org.dru.dusap.inject.internal;
+
+import javax.inject.Provider;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// hands out idle instances from a lock free bounded pool, creating new ones when it is empty.
+final class PooledProvider<T> implements Provider<T> {
+    private final Provider<T> provider;
+    private final AtomicReferenceArray<T> idle;
+
+    PooledProvider(final Provider<T> provider, final int max) {
+        this.provider = provider;
+        idle = new AtomicReferenceArray<>(max);
+    }
+
+    @Override
+    public T get() {
+        final int length = idle.length();
+        final int start = startIndex(length);
+        for (int offset = 0; offset < length; offset++) {
+            final int index = (start + offset) % length;
+            final T instance = idle.get(index);
+            if (instance != null && idle.compareAndSet(index, instance, null)) {
+                return instance;
+            }
+        }
+        return provider.get();
+    }
+
+    // returns the instance to the pool, dropping it when the pool is full.
+    void release(final T instance) {
+        if (instance == null) {
+            return;
+        }
+        final int length = idle.length();
+        final int start = startIndex(length);
+        for (int offset = 0; offset < length; offset++) {
+            final int index = (start + offset) % length;
+            if (idle.get(index) == null && idle.compareAndSet(index, null, instance)) {
+                return;
+            }
+        }
+    }
+
+    private static int startIndex(final int length) {
+        return (int) (Thread.currentThread().getId() % length);
+    }
+
+    @Override
+    public String toString() {
+        return "Pooled{" +
+                "provider=" + provider +
+                ", max=" + idle.length() +
+                '}';
+    }
+}
@@ -0,0 +1,24 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.Pooled;
+import org.dru.dusap.inject.ScopeException;
+import org.dru.dusap.inject.Scoping;
+import org.dru.dusap.inject.ScopingFactory;
+
+import javax.inject.Provider;
+
+public final class PooledScopingFactory implements ScopingFactory<Pooled> {
+    @Override
+    public Scoping getScoping(final Pooled annotation) {
+        if (annotation.max() <= 0) {
+            throw new ScopeException("illegal pool size: %d", annotation.max());
+        }
+        final int max = annotation.max();
+        return new Scoping() {
+            @Override
+            public <T> Provider<T> scope(final Provider<T> provider) {
+                return new PooledProvider<>(provider, max);
+            }
+        };
+    }
+}
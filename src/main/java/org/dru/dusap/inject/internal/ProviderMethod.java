@@ -1,26 +1,165 @@
 package org.dru.dusap.inject.internal;
 
+import org.dru.dusap.inject.BindingProbe;
+import org.dru.dusap.inject.InjectionException;
+import org.dru.dusap.inject.Invoker;
+import org.dru.dusap.inject.Key;
+import org.dru.dusap.inject.Scoping;
+import org.dru.dusap.inject.Tracer;
+
 import javax.inject.Provider;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Supplier;
 
 final class ProviderMethod<T> implements Provider<T> {
     private final InjectorImpl injector;
     private final Supplier<?> supplier;
     private final Method method;
+    private final Invoker invoker;
+    private final Key<?> key;
+    private final Scoping scoping;
+    private final ParameterBindings parameterBindings;
+    private final BindingProbe probe;
+    private final boolean async;
+    private final Tracer tracer;
 
-    ProviderMethod(final InjectorImpl injector, final Supplier<?> supplier, final Method method) {
+    ProviderMethod(final InjectorImpl injector, final Supplier<?> supplier, final Method method,
+                   final Invoker invoker, final Key<?> key, final Scoping scoping, final BindingProbe probe) {
         this.injector = injector;
         this.supplier = supplier;
         this.method = method;
+        this.invoker = invoker;
+        this.key = key;
+        this.scoping = scoping;
+        this.probe = probe;
+        parameterBindings = new ParameterBindings(injector, Key.of(method));
+        async = isAsync(method);
+        tracer = injector.getTracer();
+    }
+
+    // CompletionStage<T> or CompletableFuture<T>, both are provided as a CompletableFuture.
+    static boolean isAsync(final Method method) {
+        return ((method.getReturnType() == CompletionStage.class || method.getReturnType() == CompletableFuture.class)
+                && method.getGenericReturnType() instanceof ParameterizedType);
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public T get() {
-        final T instance = (T) injector.injectMethod(supplier.get(), method);
-        injector.injectMembers(instance);
-        return instance;
+        // parameters are provisioned within the span, async ones are only started.
+        tracer.begin("provides", method);
+        try {
+            if (async) {
+                return (T) getAsync();
+            }
+            final Object[] args = parameterBindings.getInstances();
+            final BindingProvisionedEvent event = new BindingProvisionedEvent();
+            event.begin();
+            final long token = probe.provisionStarted();
+            try {
+                final T instance = (T) invoker.invoke(supplier.get(), args);
+                if (instance != null) {
+                    injector.injectMembers(instance);
+                }
+                return instance;
+            } finally {
+                probe.provisionFinished(token);
+                commit(event);
+            }
+        } finally {
+            tracer.end();
+        }
+    }
+
+    // parameters bound by async provider methods are awaited without blocking, all of them started before the first
+    // one is waited for so that their initialization overlaps.
+    private CompletableFuture<?> getAsync() {
+        final BindingImpl<?>[] bindings = parameterBindings.getBindings();
+        final Object[] args = new Object[bindings.length];
+        final CompletableFuture<?>[] stages = new CompletableFuture<?>[bindings.length];
+        final List<CompletableFuture<?>> pending = new ArrayList<>();
+        for (int index = 0; index < bindings.length; index++) {
+            if (bindings[index].getProvider() instanceof AwaitProvider) {
+                stages[index] = ((AwaitProvider<?>) bindings[index].getProvider()).getStage();
+                pending.add(stages[index]);
+            } else {
+                args[index] = bindings[index].getInstance();
+            }
+        }
+        if (pending.isEmpty()) {
+            return invokeAsync(args);
+        }
+        return CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).thenCompose(($) -> {
+            for (int index = 0; index < stages.length; index++) {
+                if (stages[index] != null) {
+                    args[index] = stages[index].join();
+                }
+            }
+            return invokeAsync(args);
+        });
+    }
+
+    private CompletableFuture<?> invokeAsync(final Object[] args) {
+        final CompletionStage<?> stage;
+        final BindingProvisionedEvent event = new BindingProvisionedEvent();
+        event.begin();
+        final long token = probe.provisionStarted();
+        try {
+            stage = (CompletionStage<?>) invoker.invoke(supplier.get(), args);
+        } finally {
+            probe.provisionFinished(token);
+            commit(event);
+        }
+        if (stage == null) {
+            throw new InjectionException("null stage provided: %s", method.toGenericString());
+        }
+        return stage.toCompletableFuture().thenApply((instance) -> {
+            if (instance != null) {
+                injector.injectMembers(instance);
+            }
+            return instance;
+        });
+    }
+
+    private void commit(final BindingProvisionedEvent event) {
+        if (event.shouldCommit()) {
+            event.key = key.toString();
+            event.scope = scoping.toString();
+            event.commit();
+        }
+    }
+
+    ParameterBindings getParameterBindings() {
+        return parameterBindings;
+    }
+
+    // bindings of the members injected into the provided instance, as far as the declared type tells.
+    List<BindingImpl<?>> getMemberBindings() {
+        Type type = method.getGenericReturnType();
+        if (async) {
+            type = ((ParameterizedType) type).getActualTypeArguments()[0];
+        }
+        if (type instanceof ParameterizedType) {
+            type = ((ParameterizedType) type).getRawType();
+        }
+        if (!(type instanceof Class)) {
+            return Collections.emptyList();
+        }
+        final List<BindingImpl<?>> result = new ArrayList<>();
+        for (final Key<?> memberKey : injector.getInjectionPoints((Class<?>) type).getKeys()) {
+            final BindingImpl<?> binding = injector.lookupBinding(memberKey);
+            if (binding != null) {
+                result.add(binding);
+            }
+        }
+        return result;
     }
 
     @Override
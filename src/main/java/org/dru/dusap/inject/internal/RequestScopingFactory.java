@@ -0,0 +1,181 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.RequestScoped;
+import org.dru.dusap.inject.ScopeContext;
+import org.dru.dusap.inject.ScopeException;
+import org.dru.dusap.inject.Scoping;
+import org.dru.dusap.inject.ScopingFactory;
+
+import javax.inject.Provider;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public final class RequestScopingFactory implements ScopingFactory<RequestScoped>, Scoping {
+    private static final int POOL_SIZE = 64;
+    private static final Object NULL = new Object();
+
+    private final AtomicInteger slotCount;
+    private final ThreadLocal<Entry> current;
+    private final BlockingQueue<AtomicReferenceArray<Object>> pool;
+
+    public RequestScopingFactory() {
+        slotCount = new AtomicInteger();
+        current = new ThreadLocal<>();
+        pool = new ArrayBlockingQueue<>(POOL_SIZE);
+    }
+
+    @Override
+    public Scoping getScoping(final RequestScoped annotation) {
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> Provider<T> scope(final Provider<T> provider) {
+        final int slot = slotCount.getAndIncrement();
+        return () -> {
+            final Context context = getCurrent();
+            if (context == null) {
+                throw new ScopeException("not in a request scope: %s", provider);
+            }
+            final Object instance = context.get(slot, provider);
+            return (instance != NULL ? (T) instance : null);
+        };
+    }
+
+    public ScopeContext openScope() {
+        final Context context = new Context();
+        context.enter();
+        return context;
+    }
+
+    // the innermost open context entered by the calling thread, contexts closed meanwhile are left.
+    private Context getCurrent() {
+        final Entry first = current.get();
+        Entry entry = first;
+        while (entry != null && entry.context.isClosed()) {
+            entry = entry.previous;
+        }
+        if (entry != first) {
+            if (entry != null) {
+                current.set(entry);
+            } else {
+                current.remove();
+            }
+        }
+        return (entry != null ? entry.context : null);
+    }
+
+    private AtomicReferenceArray<Object> acquire(final int minLength) {
+        final AtomicReferenceArray<Object> slots = pool.poll();
+        return (slots != null && slots.length() >= minLength ? slots : new AtomicReferenceArray<>(slotCount.get()));
+    }
+
+    private final class Context implements ScopeContext {
+        private volatile AtomicReferenceArray<Object> slots;
+        private int maxSlot;
+
+        Context() {
+            slots = acquire(slotCount.get());
+            maxSlot = -1;
+        }
+
+        Object get(final int slot, final Provider<?> provider) {
+            AtomicReferenceArray<Object> storage = slots;
+            if (storage == null) {
+                throw new ScopeException("request scope closed");
+            }
+            Object instance = (slot < storage.length() ? storage.get(slot) : null);
+            if (instance == null) {
+                synchronized (this) {
+                    storage = slots;
+                    if (storage == null) {
+                        throw new ScopeException("request scope closed");
+                    }
+                    if (slot >= storage.length()) {
+                        final AtomicReferenceArray<Object> grown = acquire(slotCount.get());
+                        for (int index = 0; index <= maxSlot; index++) {
+                            grown.set(index, storage.get(index));
+                        }
+                        storage = grown;
+                        slots = storage;
+                    }
+                    instance = storage.get(slot);
+                    if (instance == null) {
+                        instance = provider.get();
+                        if (instance == null) {
+                            instance = NULL;
+                        }
+                        // a nested provision may have grown the storage in the meantime.
+                        storage = slots;
+                        if (storage == null) {
+                            throw new ScopeException("request scope closed");
+                        }
+                        storage.set(slot, instance);
+                        maxSlot = Math.max(maxSlot, slot);
+                    }
+                }
+            }
+            return instance;
+        }
+
+        boolean isClosed() {
+            return (slots == null);
+        }
+
+        // a context may be entered by several threads, each of them returns to its own previous context on exit.
+        @Override
+        public void enter() {
+            if (isClosed()) {
+                throw new ScopeException("request scope closed");
+            }
+            // closed contexts are dropped before this one is pushed.
+            getCurrent();
+            current.set(new Entry(this, current.get()));
+        }
+
+        @Override
+        public void exit() {
+            if (getCurrent() == this) {
+                final Entry previous = current.get().previous;
+                if (previous != null) {
+                    current.set(previous);
+                } else {
+                    current.remove();
+                }
+            }
+        }
+
+        // exits on the calling thread, other threads that entered leave it when they next look for their context.
+        @Override
+        public void close() {
+            exit();
+            final AtomicReferenceArray<Object> released;
+            final int used;
+            synchronized (this) {
+                released = slots;
+                used = maxSlot;
+                slots = null;
+            }
+            if (released != null) {
+                // only the slots used by this scope need to be cleared before the storage is reused.
+                for (int index = 0; index <= used; index++) {
+                    released.set(index, null);
+                }
+                pool.offer(released);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final Context context;
+        private final Entry previous;
+
+        Entry(final Context context, final Entry previous) {
+            this.context = context;
+            this.previous = previous;
+        }
+    }
+}
@@ -6,6 +6,8 @@ import org.dru.dusap.inject.ScopingFactory;
 
 import javax.inject.Scope;
 import java.lang.annotation.Annotation;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
@@ -26,6 +28,10 @@ public final class ScopingFactoryRegistry {
         }
     }
 
+    public Collection<ScopingFactory<?>> getScopingFactories() {
+        return Collections.unmodifiableCollection(scopingFactoryByAnnotationType.values());
+    }
+
     @SuppressWarnings("unchecked")
     public <T extends Annotation> ScopingFactory<T> getScopingFactoryByAnnotationType(final Class<T> annotationType) {
         checkScopeAnnotated(annotationType);
@@ -3,7 +3,6 @@ package org.dru.dusap.inject.internal;
 import org.dru.dusap.inject.Scoping;
 
 import javax.inject.Provider;
-import java.util.concurrent.atomic.AtomicReference;
 
 public enum Scopings implements Scoping {
     NO_SCOPING {
@@ -13,28 +12,9 @@ public enum Scopings implements Scoping {
         }
     },
     SINGLETON {
-        @SuppressWarnings("unchecked")
         @Override
         public <T> Provider<T> scope(final Provider<T> provider) {
-            final AtomicReference<Object> ref = new AtomicReference<>();
-            return () -> {
-                Object instance = ref.get();
-                if (instance == null) {
-                    instance = provider.get();
-                    if (instance == null) {
-                        instance = NULL;
-                    }
-                    if (!ref.compareAndSet(null, instance)) {
-                        instance = ref.get();
-                    }
-                }
-                if (instance == null) {
-                    instance = NULL;
-                }
-                return (T) instance;
-            };
+            return new SingletonProvider<>(provider);
         }
-    };
-
-    private static final Object NULL = new Object();
+    }
 }
@@ -0,0 +1,170 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.InjectionException;
+import org.dru.dusap.inject.InjectionUtils;
+import org.dru.dusap.inject.InvokerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+final class SingletonCloser {
+    private static final Logger logger = LoggerFactory.getLogger(SingletonCloser.class);
+    private static final int SLOWEST_REPORTED = 5;
+    private static final Object[] NO_ARGS = new Object[0];
+
+    // closes every created singleton once all singletons depending on it are closed, unrelated ones in parallel.
+    // returns when all are closed or the timeout elapses, failures are collected and thrown together at the end.
+    static void close(final Collection<InjectorImpl> injectorImpls, final InvokerFactory invokerFactory,
+                      final Executor executor, final long timeoutNanos) {
+        final long start = System.nanoTime();
+        final Map<BindingImpl<?>, Set<BindingImpl<?>>> dependantsBySingleton = new LinkedHashMap<>();
+        for (final InjectorImpl injectorImpl : injectorImpls) {
+            for (final BindingImpl<?> binding : injectorImpl.getLocalBindingImpls()) {
+                if (isCreatedSingleton(binding)) {
+                    dependantsBySingleton.putIfAbsent(binding, new LinkedHashSet<>());
+                    for (final BindingImpl<?> dependency : EagerSingletons.getSingletonDependencies(binding, true)) {
+                        dependantsBySingleton.computeIfAbsent(dependency, ($) -> new LinkedHashSet<>()).add(binding);
+                    }
+                }
+            }
+        }
+        dependantsBySingleton.keySet().removeIf((binding) -> !isCreatedSingleton(binding));
+        final Set<Object> closedInstances = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Map<BindingImpl<?>, Long> nanosBySingleton = new ConcurrentHashMap<>();
+        final Queue<Exception> failures = new ConcurrentLinkedQueue<>();
+        final Map<BindingImpl<?>, CompletableFuture<Void>> futureBySingleton = new HashMap<>();
+        for (final BindingImpl<?> binding : dependantsBySingleton.keySet()) {
+            schedule(binding, dependantsBySingleton, futureBySingleton, new HashSet<>(), (singleton) -> {
+                final long closeStart = System.nanoTime();
+                try {
+                    final Object instance = singleton.getInstance();
+                    final boolean first;
+                    synchronized (closedInstances) {
+                        first = closedInstances.add(instance);
+                    }
+                    if (first) {
+                        dispose(instance, invokerFactory);
+                    }
+                } catch (final Exception exc) {
+                    logger.warn("failed to close {}", singleton, exc);
+                    failures.add(exc);
+                } finally {
+                    nanosBySingleton.put(singleton, System.nanoTime() - closeStart);
+                }
+            }, executor);
+        }
+        try {
+            CompletableFuture.allOf(futureBySingleton.values().toArray(new CompletableFuture<?>[0]))
+                    .get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (final TimeoutException exc) {
+            logger.warn("gave up closing singletons after {} ms, still open: {}",
+                    TimeUnit.NANOSECONDS.toMillis(timeoutNanos), futureBySingleton.entrySet().stream()
+                            .filter((entry) -> !entry.getValue().isDone())
+                            .map(Map.Entry::getKey)
+                            .collect(Collectors.toList()));
+        } catch (final InterruptedException exc) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException exc) {
+            failures.add(exc);
+        }
+        report(nanosBySingleton, System.nanoTime() - start);
+        if (!failures.isEmpty()) {
+            final Iterator<Exception> iterator = failures.iterator();
+            final InjectionException exc = new InjectionException("failed to close %d singleton(s)", iterator.next(),
+                    failures.size());
+            iterator.forEachRemaining(exc::addSuppressed);
+            throw exc;
+        }
+    }
+
+    private static CompletableFuture<Void> schedule(
+            final BindingImpl<?> binding, final Map<BindingImpl<?>, Set<BindingImpl<?>>> dependantsBySingleton,
+            final Map<BindingImpl<?>, CompletableFuture<Void>> futureBySingleton, final Set<BindingImpl<?>> visiting,
+            final Consumer<BindingImpl<?>> closer, final Executor executor) {
+        CompletableFuture<Void> future = futureBySingleton.get(binding);
+        if (future != null) {
+            return future;
+        }
+        if (!visiting.add(binding)) {
+            // only handles can close a cycle, it is broken where it is found.
+            logger.debug("circular singleton dependency: {}", binding);
+            return CompletableFuture.completedFuture(null);
+        }
+        final CompletableFuture<?>[] dependantFutures = dependantsBySingleton.get(binding).stream()
+                .map((dependant) -> schedule(dependant, dependantsBySingleton, futureBySingleton, visiting, closer,
+                        executor))
+                .toArray(CompletableFuture<?>[]::new);
+        visiting.remove(binding);
+        future = CompletableFuture.allOf(dependantFutures).thenRunAsync(() -> closer.accept(binding), executor);
+        futureBySingleton.put(binding, future);
+        return future;
+    }
+
+    // @PreDestroy methods when there are any, otherwise AutoCloseable.close(). the annotation is matched by simple
+    // name so that neither javax.annotation nor jakarta.annotation has to be on the class path. the value of an async
+    // singleton is disposed of when its stage has completed normally.
+    static void dispose(final Object singleton, final InvokerFactory invokerFactory) throws Exception {
+        Object instance = singleton;
+        if (instance instanceof CompletionStage) {
+            final CompletableFuture<?> stage = ((CompletionStage<?>) instance).toCompletableFuture();
+            instance = (stage.isDone() && !stage.isCompletedExceptionally() ? stage.join() : null);
+        }
+        if (instance == null) {
+            return;
+        }
+        final List<Method> preDestroyMethods = InjectionUtils.getDeclaredMethods(instance.getClass(),
+                SingletonCloser::isPreDestroy);
+        if (!preDestroyMethods.isEmpty()) {
+            for (final Method method : preDestroyMethods) {
+                invokerFactory.getMethodInvoker(method).invoke(instance, NO_ARGS);
+            }
+        } else if (instance instanceof AutoCloseable) {
+            ((AutoCloseable) instance).close();
+        }
+    }
+
+    private static boolean isPreDestroy(final Method method) {
+        if (method.getParameterCount() != 0) {
+            return false;
+        }
+        for (final Annotation annotation : method.getAnnotations()) {
+            if (annotation.annotationType().getSimpleName().equals("PreDestroy")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCreatedSingleton(final BindingImpl<?> binding) {
+        return (binding.getScopedProvider() instanceof SingletonProvider
+                && ((SingletonProvider<?>) binding.getScopedProvider()).isInitialized());
+    }
+
+    private static void report(final Map<BindingImpl<?>, Long> nanosBySingleton, final long totalNanos) {
+        final List<Map.Entry<BindingImpl<?>, Long>> entries = new ArrayList<>(nanosBySingleton.entrySet());
+        entries.sort(Map.Entry.<BindingImpl<?>, Long>comparingByValue().reversed());
+        if (logger.isDebugEnabled()) {
+            entries.forEach((entry) -> logger.debug("closed {} in {} us", entry.getKey().getKey(),
+                    TimeUnit.NANOSECONDS.toMicros(entry.getValue())));
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        logger.info("closed {} singleton(s) in {} ms, slowest: {}", entries.size(),
+                TimeUnit.NANOSECONDS.toMillis(totalNanos), entries.stream()
+                        .limit(SLOWEST_REPORTED)
+                        .map((entry) -> entry.getKey().getKey() + "="
+                                + TimeUnit.NANOSECONDS.toMillis(entry.getValue()) + "ms")
+                        .collect(Collectors.joining(", ")));
+    }
+
+    private SingletonCloser() throws InstantiationException {
+        throw new InstantiationException();
+    }
+}
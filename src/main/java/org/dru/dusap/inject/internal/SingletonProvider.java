@@ -0,0 +1,48 @@
+package org.dru.dusap.inject.internal;
+
+import javax.inject.Provider;
+
+final class SingletonProvider<T> implements Provider<T> {
+    private static final Object UNINITIALIZED = new Object();
+
+    private final Provider<T> provider;
+    private volatile Object instance;
+
+    SingletonProvider(final Provider<T> provider) {
+        this.provider = provider;
+        instance = UNINITIALIZED;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T get() {
+        Object current = instance;
+        if (current == UNINITIALIZED) {
+            final SingletonWaitEvent event = new SingletonWaitEvent();
+            event.begin();
+            synchronized (this) {
+                current = instance;
+                if (current == UNINITIALIZED) {
+                    current = provider.get();
+                    instance = current;
+                } else if (event.shouldCommit()) {
+                    // created by another thread while this one waited for the lock.
+                    event.provider = provider.toString();
+                    event.commit();
+                }
+            }
+        }
+        return (T) current;
+    }
+
+    boolean isInitialized() {
+        return (instance != UNINITIALIZED);
+    }
+
+    @Override
+    public String toString() {
+        return "Singleton{" +
+                "provider=" + provider +
+                '}';
+    }
+}
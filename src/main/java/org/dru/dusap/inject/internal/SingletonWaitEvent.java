@@ -0,0 +1,16 @@
+package org.dru.dusap.inject.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.dru.dusap.inject.SingletonWait")
+@Label("Singleton Wait")
+@Description("Waited for another thread to create a singleton")
+@Category({"Dusap", "Injection"})
+final class SingletonWaitEvent extends Event {
+    @Label("Provider")
+    String provider;
+}
@@ -0,0 +1,74 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.Scoping;
+import org.dru.dusap.inject.ScopingFactory;
+import org.dru.dusap.inject.SoftSingleton;
+
+import javax.inject.Provider;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.util.function.Function;
+
+public final class SoftSingletonScopingFactory implements ScopingFactory<SoftSingleton>, Scoping {
+    private static final Object NULL = new Object();
+
+    private final Function<Object, Reference<Object>> referenceFactory;
+
+    public SoftSingletonScopingFactory() {
+        this(SoftReference::new);
+    }
+
+    // tests hand in references they can clear instead of waiting for the collector to run short of memory.
+    SoftSingletonScopingFactory(final Function<Object, Reference<Object>> referenceFactory) {
+        this.referenceFactory = referenceFactory;
+    }
+
+    @Override
+    public Scoping getScoping(final SoftSingleton annotation) {
+        return this;
+    }
+
+    @Override
+    public <T> Provider<T> scope(final Provider<T> provider) {
+        return new SoftSingletonProvider<>(provider, referenceFactory);
+    }
+
+    private static final class SoftSingletonProvider<T> implements Provider<T> {
+        private final Provider<T> provider;
+        private final Function<Object, Reference<Object>> referenceFactory;
+        private volatile Reference<Object> ref;
+
+        SoftSingletonProvider(final Provider<T> provider,
+                              final Function<Object, Reference<Object>> referenceFactory) {
+            this.provider = provider;
+            this.referenceFactory = referenceFactory;
+            ref = referenceFactory.apply(null);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T get() {
+            Object instance = ref.get();
+            if (instance == null) {
+                synchronized (this) {
+                    instance = ref.get();
+                    if (instance == null) {
+                        instance = provider.get();
+                        if (instance == null) {
+                            instance = NULL;
+                        }
+                        ref = referenceFactory.apply(instance);
+                    }
+                }
+            }
+            return (instance != NULL ? (T) instance : null);
+        }
+
+        @Override
+        public String toString() {
+            return "SoftSingleton{" +
+                    "provider=" + provider +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.Scoping;
+import org.dru.dusap.inject.ScopingFactory;
+import org.dru.dusap.inject.ThreadScoped;
+
+import javax.inject.Provider;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class ThreadScopingFactory implements ScopingFactory<ThreadScoped>, Scoping {
+    private static final Object NULL = new Object();
+
+    private final AtomicInteger slotCount;
+    // a single thread local array per injection, one slot per thread scoped binding. a pooled thread keeps its array
+    // reachable for as long as it lives, so the arrays are also tracked weakly and cleared when the injection closes.
+    private final ThreadLocal<Object[]> slots;
+    private final Set<Object[]> allSlots;
+
+    public ThreadScopingFactory() {
+        slotCount = new AtomicInteger();
+        allSlots = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+        slots = ThreadLocal.withInitial(() -> register(new Object[slotCount.get()]));
+    }
+
+    @Override
+    public Scoping getScoping(final ThreadScoped annotation) {
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> Provider<T> scope(final Provider<T> provider) {
+        final int slot = slotCount.getAndIncrement();
+        return () -> {
+            Object[] current = slots.get();
+            if (slot >= current.length) {
+                allSlots.remove(current);
+                current = register(Arrays.copyOf(current, slotCount.get()));
+                slots.set(current);
+            }
+            Object instance = current[slot];
+            if (instance == null) {
+                instance = provider.get();
+                current[slot] = (instance != null ? instance : NULL);
+            }
+            return (instance != NULL ? (T) instance : null);
+        };
+    }
+
+    // drops the instances of every thread, a thread asking again gets new ones.
+    void clear() {
+        synchronized (allSlots) {
+            for (final Object[] threadSlots : allSlots) {
+                Arrays.fill(threadSlots, null);
+            }
+        }
+    }
+
+    private Object[] register(final Object[] threadSlots) {
+        allSlots.add(threadSlots);
+        return threadSlots;
+    }
+}
@@ -0,0 +1,20 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.Tracer;
+
+public enum Tracers implements Tracer {
+    // inlined away as long as no other tracer is in use.
+    NOOP {
+        @Override
+        public void begin(final String category, final Object subject) {
+        }
+
+        @Override
+        public void end() {
+        }
+
+        @Override
+        public void export(final Appendable out) {
+        }
+    }
+}
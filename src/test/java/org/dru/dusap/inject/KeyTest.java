@@ -0,0 +1,67 @@
+package org.dru.dusap.inject;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.inject.Named;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class KeyTest {
+    @Test
+    public void testInterned() throws Exception {
+        final Method method = KeyTest.class.getDeclaredMethod("method", String.class, String.class, List.class,
+                int.class);
+        final Key<?>[] first = Key.of(method);
+        final Key<?>[] second = Key.of(method);
+        for (int index = 0; index < first.length; index++) {
+            Assert.assertSame(first[index], second[index]);
+        }
+        Assert.assertSame(Key.of(String.class, null), Key.of(String.class, null));
+        Assert.assertSame(Key.of(Integer.class, null), first[3]);
+    }
+
+    @Test
+    public void testInternedConcurrently() throws Exception {
+        final Method method = KeyTest.class.getDeclaredMethod("method", String.class, String.class, List.class,
+                int.class);
+        final Parameter parameter = method.getParameters()[2];
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Key<?>>> futures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                futures.add(executor.submit(() -> Key.of(parameter.getParameterizedType(), parameter)));
+            }
+            final Key<?> expected = Key.of(parameter.getParameterizedType(), parameter);
+            for (final Future<Key<?>> future : futures) {
+                Assert.assertSame(expected, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testWithoutSource() throws Exception {
+        final Method method = KeyTest.class.getDeclaredMethod("method", String.class, String.class, List.class,
+                int.class);
+        final Key<?>[] keys = Key.of(method);
+        Assert.assertEquals(Module.class, keys[1].getSourceTypeOrDefault(null));
+        Assert.assertNull(keys[0].getSourceTypeOrDefault(null));
+        Assert.assertSame(keys[0], keys[1].withoutSource());
+        Assert.assertSame(keys[0], keys[0].withoutSource());
+        Assert.assertEquals(keys[0].hashCode(), keys[1].withoutSource().hashCode());
+        Assert.assertEquals(1, keys[0].getQualifiers().size());
+        Assert.assertEquals(2, keys[1].getQualifiers().size());
+    }
+
+    @SuppressWarnings("unused")
+    private static void method(@Named("a") final String a, @Named("a") @Source(Module.class) final String b,
+                               final List<String> c, final int d) {
+    }
+}
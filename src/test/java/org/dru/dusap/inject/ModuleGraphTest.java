@@ -0,0 +1,75 @@
+package org.dru.dusap.inject;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class ModuleGraphTest {
+    @Test
+    public void testDependencyTypesAreCached() {
+        Assert.assertEquals(Arrays.asList(ModuleB.class, ModuleC.class),
+                ModuleGraph.getDependencyTypes(ModuleD.class));
+        Assert.assertSame(ModuleGraph.getDependencyTypes(ModuleD.class),
+                ModuleGraph.getDependencyTypes(ModuleD.class));
+    }
+
+    @Test
+    public void testDepthIsLongestPath() {
+        Assert.assertEquals(0, ModuleGraph.getDepth(ModuleA.class));
+        Assert.assertEquals(1, ModuleGraph.getDepth(ModuleB.class));
+        Assert.assertEquals(2, ModuleGraph.getDepth(ModuleC.class));
+        Assert.assertEquals(3, ModuleGraph.getDepth(ModuleD.class));
+    }
+
+    @Test
+    public void testCyclePathIsReported() {
+        try {
+            ModuleGraph.checkCircularity(ModuleE.class);
+            Assert.fail();
+        } catch (final DependencyException exc) {
+            Assert.assertEquals("circular dependency: " + String.join(" -> ", ModuleF.class.getName(),
+                    ModuleG.class.getName(), ModuleH.class.getName(), ModuleF.class.getName()), exc.getMessage());
+        }
+    }
+
+    @Test(expected = DependencyException.class)
+    public void testSelfCycleFails() {
+        ModuleGraph.checkCircularity(ModuleI.class);
+    }
+
+    static class ModuleA implements Module {
+    }
+
+    @DependsOn(ModuleA.class)
+    static class ModuleB implements Module {
+    }
+
+    @DependsOn(ModuleB.class)
+    static class ModuleC implements Module {
+    }
+
+    @DependsOn({ModuleB.class, ModuleC.class})
+    static class ModuleD implements Module {
+    }
+
+    @DependsOn({ModuleA.class, ModuleF.class})
+    static class ModuleE implements Module {
+    }
+
+    @DependsOn(ModuleG.class)
+    static class ModuleF implements Module {
+    }
+
+    @DependsOn({ModuleA.class, ModuleH.class})
+    static class ModuleG implements Module {
+    }
+
+    @DependsOn(ModuleF.class)
+    static class ModuleH implements Module {
+    }
+
+    @DependsOn(ModuleI.class)
+    static class ModuleI implements Module {
+    }
+}
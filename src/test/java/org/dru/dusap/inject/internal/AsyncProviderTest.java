@@ -0,0 +1,132 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.inject.Singleton;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncProviderTest {
+    private static final long DELAY_MILLIS = 200;
+
+    @Test
+    public void testIndependentDependenciesOverlap() throws Exception {
+        final Injector injector = InjectionBuilder.newInjector(AsyncModule.class);
+        final long start = System.nanoTime();
+        final CompletionStage<String> stage = injector.getInstanceAsync(String.class);
+        Assert.assertEquals("1:2", stage.toCompletableFuture().get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2 * DELAY_MILLIS);
+    }
+
+    @Test
+    public void testSynchronousInjectionAwaitsStage() {
+        final Injector injector = InjectionBuilder.newInjector(AsyncModule.class);
+        Assert.assertEquals("1:2", injector.getInstance(String.class));
+        Assert.assertEquals("[1:2]", injector.getInstance(StringBuilder.class).toString());
+    }
+
+    @Test
+    public void testSingletonStageIsMemoized() {
+        final Injector injector = InjectionBuilder.newInjector(AsyncModule.class);
+        injector.getInstance(String.class);
+        injector.getInstance(String.class);
+        Assert.assertEquals(1, injector.getInstance(AsyncModule.class).calls.get());
+    }
+
+    @Test
+    public void testSynchronousBindingIsCompleted() {
+        final Injector injector = InjectionBuilder.newInjector(AsyncModule.class);
+        Assert.assertTrue(injector.getInstanceAsync(StringBuilder.class).toCompletableFuture().isDone());
+    }
+
+    @Test
+    public void testFailureIsPropagated() throws InterruptedException {
+        final Injector injector = InjectionBuilder.newInjector(FailingModule.class);
+        try {
+            injector.getInstanceAsync(String.class).toCompletableFuture().get();
+            Assert.fail();
+        } catch (final ExecutionException exc) {
+            Assert.assertTrue(exc.getCause() instanceof IllegalStateException);
+        }
+        try {
+            injector.getInstance(String.class);
+            Assert.fail();
+        } catch (final IllegalStateException exc) {
+            Assert.assertEquals("failing", exc.getMessage());
+        }
+    }
+
+    @Test(expected = BindingException.class)
+    public void testValueKeyIsBound() {
+        InjectionBuilder.newInjector(ConflictingModule.class);
+    }
+
+    private static <T> CompletableFuture<T> delayed(final T value) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Thread.sleep(DELAY_MILLIS);
+            } catch (final InterruptedException exc) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
+        });
+    }
+
+    static class AsyncModule implements Module {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Provides
+        CompletionStage<Integer> provideFirst() {
+            return delayed(1);
+        }
+
+        @Provides
+        CompletableFuture<Long> provideSecond() {
+            return delayed(2L);
+        }
+
+        @Provides
+        @Singleton
+        CompletionStage<String> provideString(final Integer first, final Long second) {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(first + ":" + second);
+        }
+
+        @Provides
+        StringBuilder provideStringBuilder(final String value) {
+            return new StringBuilder("[").append(value).append(']');
+        }
+
+        @Provides
+        AsyncModule provideModule() {
+            return this;
+        }
+    }
+
+    static class FailingModule implements Module {
+        @Provides
+        CompletionStage<String> provideString() {
+            final CompletableFuture<String> result = new CompletableFuture<>();
+            result.completeExceptionally(new IllegalStateException("failing"));
+            return result;
+        }
+    }
+
+    static class ConflictingModule implements Module {
+        @Provides
+        CompletionStage<String> provideStage() {
+            return CompletableFuture.completedFuture("async");
+        }
+
+        @Provides
+        String provideString() {
+            return "sync";
+        }
+    }
+}
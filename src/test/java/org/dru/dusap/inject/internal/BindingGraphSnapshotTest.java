@@ -0,0 +1,78 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+public class BindingGraphSnapshotTest {
+    @Test
+    public void testRoundTrip() throws IOException {
+        final Injection injection = new InjectionBuilder().build();
+        Assert.assertEquals(Integer.valueOf(2), injection.getInjector(ModuleB.class).getInstance(Integer.class));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        injection.writeSnapshot(out);
+        final BindingGraphSnapshot snapshot = BindingGraphSnapshot.read(new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(ModuleA.class.getName(), ModuleB.class.getName())),
+                snapshot.getModuleTypeNames());
+        final ModuleFactory moduleFactory = snapshot.getModuleFactoryOrNull(ModuleB.class, Invokers.REFLECTION);
+        Assert.assertNotNull(moduleFactory);
+        Assert.assertEquals(Arrays.asList(ModuleA.class), moduleFactory.getDependencyTypes());
+        Assert.assertEquals(1, moduleFactory.getProviderMethods().size());
+        final Injector injector = new InjectionBuilder()
+                .withSnapshot(new ByteArrayInputStream(out.toByteArray()))
+                .build()
+                .getInjector(ModuleB.class);
+        Assert.assertEquals(Integer.valueOf(2), injector.getInstance(Integer.class));
+        Assert.assertSame(injector.getInstance(String.class), injector.getInstance(String.class));
+    }
+
+    @Test
+    public void testModulesConstructedByInjectionAreLeftOut() throws IOException {
+        final Injection injection = new InjectionBuilder().build();
+        injection.getInjector(ModuleC.class);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        injection.writeSnapshot(out);
+        final BindingGraphSnapshot snapshot = BindingGraphSnapshot.read(new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(ModuleA.class.getName())), snapshot.getModuleTypeNames());
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testRejectsForeignData() throws IOException {
+        BindingGraphSnapshot.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6}));
+    }
+
+    static class ModuleA implements Module {
+        @Provides
+        @Expose
+        @Singleton
+        String provideString() {
+            return new String("A");
+        }
+    }
+
+    @DependsOn(ModuleA.class)
+    static class ModuleB implements Module {
+        @Provides
+        @Expose
+        Integer provideInteger(final String value) {
+            return value.length() + 1;
+        }
+    }
+
+    @DependsOn(ModuleA.class)
+    static class ModuleC implements Module {
+        @Inject
+        ModuleC(final Injector injector) {
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.lang.ref.WeakReference;
+
+public class ChildInjectorTest {
+    @Test
+    public void testChildOverlaysParent() {
+        final Injector parent = InjectionBuilder.newInjector(ParentModule.class);
+        final Injector child = parent.newInjector(ChildModule.class);
+        Assert.assertSame(parent.getInstance(Object.class), child.getInstance(Object.class));
+        Assert.assertEquals("child", child.getInstance(String.class));
+        Assert.assertEquals("parent", parent.getInstance(String.class));
+        Assert.assertEquals(Integer.valueOf(5), child.getInstance(Integer.class));
+        Assert.assertSame(child, child.getInstance(Injector.class));
+    }
+
+    @Test(expected = BindingException.class)
+    public void testParentHidesUnexposedBindings() {
+        InjectionBuilder.newInjector(ParentModule.class).newInjector(ChildModule.class).getInstance(Long.class);
+    }
+
+    @Test
+    public void testChildDoesNotInvalidateResolutions() {
+        final InjectionImpl injection = (InjectionImpl) new InjectionBuilder().build();
+        final Injector parent = injection.getInjector(ParentModule.class);
+        final int generation = injection.getGeneration();
+        for (int i = 0; i < 100; i++) {
+            parent.newInjector(ChildModule.class);
+        }
+        Assert.assertEquals(generation, injection.getGeneration());
+    }
+
+    @Test
+    public void testLookupsDuringConstructionAreDropped() {
+        final Injector child = InjectionBuilder.newInjector(ParentModule.class).newInjector(EagerChildModule.class);
+        Assert.assertEquals("child", child.getInstance(String.class));
+    }
+
+    @Test
+    public void testChildResolvesHandlesOfItsOwnBindings() {
+        final Injector child = InjectionBuilder.newInjector(ParentModule.class).newInjector(HandleChildModule.class);
+        Assert.assertEquals(Long.valueOf(5), child.getInstance(Long.class));
+        Assert.assertEquals(Short.valueOf((short) 5), child.getInstance(Short.class));
+    }
+
+    @Test
+    public void testChildIsCollectable() throws InterruptedException {
+        final Injector parent = InjectionBuilder.newInjector(ParentModule.class);
+        WeakReference<Injector> ref = new WeakReference<>(parent.newInjector(ChildModule.class));
+        Assert.assertEquals("child", ref.get().getInstance(String.class));
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(ref.get());
+    }
+
+    static class ParentModule implements Module {
+        @Provides
+        @Expose
+        @Singleton
+        Object provideObject() {
+            return new Object();
+        }
+
+        @Provides
+        @Expose
+        String provideString() {
+            return "parent";
+        }
+
+        @Provides
+        Long provideLong() {
+            return 1L;
+        }
+    }
+
+    static class ChildModule implements Module {
+        @Provides
+        String provideString() {
+            return "child";
+        }
+
+        @Provides
+        Integer provideInteger(final String value) {
+            return value.length();
+        }
+    }
+
+    static class EagerChildModule implements Module {
+        @Inject
+        EagerChildModule(final Injector injector) {
+            Assert.assertEquals("parent", injector.getInstance(String.class));
+        }
+
+        @Provides
+        String provideString() {
+            return "child";
+        }
+    }
+
+    static class HandleChildModule implements Module {
+        @Provides
+        Integer provideInteger() {
+            return 5;
+        }
+
+        @Provides
+        Long provideLong(final Provider<Integer> provider) {
+            return provider.get().longValue();
+        }
+
+        @Provides
+        Short provideShort(final Lazy<Integer> lazy) {
+            return lazy.get().shortValue();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import java.io.IOException;
+
+public class ChromeTracerTest {
+    @Test
+    public void testExportsNestedSpans() throws IOException {
+        final ChromeTracer tracer = new ChromeTracer();
+        final Injection injection = new InjectionBuilder().withTracer(tracer).build();
+        Assert.assertEquals("slow", injection.getInjector(RootModule.class).getInstance(String.class));
+        final StringBuilder out = new StringBuilder();
+        injection.exportTrace(out);
+        final String trace = out.toString();
+        Assert.assertTrue(trace.startsWith("{\"traceEvents\":["));
+        Assert.assertTrue(trace.contains("\"name\":\"thread_name\""));
+        Assert.assertTrue(trace.contains("\"name\":\"" + RootModule.class.getName() + "\",\"cat\":\"module\""));
+        Assert.assertTrue(trace.contains("\"name\":\"" + SlowModule.class.getName() + "\",\"cat\":\"inject\""));
+        Assert.assertTrue(trace.contains("\"name\":\"" + SlowModule.class.getName() + ".provideString\""));
+        Assert.assertTrue(trace.contains("\"criticalPath\":["));
+    }
+
+    @Test
+    public void testCriticalPathFollowsLongestSpans() throws IOException {
+        final ChromeTracer tracer = new ChromeTracer();
+        new InjectionBuilder().withTracer(tracer).build().getInjector(RootModule.class);
+        final StringBuilder out = new StringBuilder();
+        tracer.summarize(out);
+        final String[] lines = out.toString().split(System.lineSeparator());
+        Assert.assertTrue(lines[0].startsWith("critical path: "));
+        Assert.assertTrue(lines[1].contains("module " + RootModule.class.getName()));
+        Assert.assertTrue(lines[2].contains("module " + SlowModule.class.getName()));
+        Assert.assertTrue(lines[3].contains("inject " + SlowModule.class.getName()));
+    }
+
+    @Test
+    public void testExportStopsRecording() throws IOException {
+        final ChromeTracer tracer = new ChromeTracer();
+        final Injection injection = new InjectionBuilder().withTracer(tracer).build();
+        final Injector injector = injection.getInjector(RootModule.class);
+        final StringBuilder first = new StringBuilder();
+        injection.exportTrace(first);
+        for (int i = 0; i < 100; i++) {
+            injector.getInstance(String.class);
+        }
+        final StringBuilder second = new StringBuilder();
+        injection.exportTrace(second);
+        Assert.assertEquals(first.toString(), second.toString());
+    }
+
+    @Test
+    public void testUnbalancedEndIsIgnored() throws IOException {
+        final ChromeTracer tracer = new ChromeTracer();
+        tracer.end();
+        tracer.begin("test", "a \"quoted\"\nname");
+        tracer.end();
+        final StringBuilder out = new StringBuilder();
+        tracer.export(out);
+        Assert.assertTrue(out.toString().contains("\"name\":\"a \\\"quoted\\\"\\u000aname\""));
+    }
+
+    @Test
+    public void testNoopExportsNothing() throws IOException {
+        final Injection injection = new InjectionBuilder().build();
+        injection.getInjector(RootModule.class);
+        final StringBuilder out = new StringBuilder();
+        injection.exportTrace(out);
+        Assert.assertEquals(0, out.length());
+    }
+
+    static class SlowModule implements Module {
+        @Inject
+        void init() throws InterruptedException {
+            Thread.sleep(20);
+        }
+
+        @Provides
+        @Expose
+        String provideString() {
+            return "slow";
+        }
+    }
+
+    static class FastModule implements Module {
+        @Provides
+        @Expose
+        Integer provideInteger() {
+            return 1;
+        }
+    }
+
+    @DependsOn({FastModule.class, SlowModule.class})
+    static class RootModule implements Module {
+    }
+}
@@ -0,0 +1,82 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+public class EagerSingletonsTest {
+    private static final List<String> CREATED = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testSingletonsCreatedInDependencyOrder() {
+        CREATED.clear();
+        final Injector injector = new InjectionBuilder()
+                .withEagerSingletons(ForkJoinPool.commonPool())
+                .build()
+                .getInjector(ModuleB.class);
+        Assert.assertEquals(4, CREATED.size());
+        Assert.assertEquals("a", CREATED.get(0));
+        Assert.assertTrue(CREATED.indexOf("b") < CREATED.indexOf("c"));
+        Assert.assertEquals("abc", injector.getInstance(Key.of(String.class, Holder.class)));
+        Assert.assertEquals(4, CREATED.size());
+    }
+
+    @Test
+    public void testSingletonsLazyByDefault() {
+        CREATED.clear();
+        new InjectionBuilder().build().getInjector(ModuleB.class);
+        Assert.assertTrue(CREATED.isEmpty());
+    }
+
+    static class ModuleA implements Module {
+        @Provides
+        @Singleton
+        @Expose
+        String provideA() {
+            CREATED.add("a");
+            return "a";
+        }
+    }
+
+    @DependsOn(ModuleA.class)
+    static class ModuleB implements Module {
+        @Provides
+        @Singleton
+        StringBuilder provideB(final String a) {
+            CREATED.add("b");
+            return new StringBuilder(a).append("b");
+        }
+
+        // unscoped bindings in between singletons are looked through.
+        @Provides
+        CharSequence provideUnscoped(final StringBuilder b) {
+            return b.toString();
+        }
+
+        @Provides
+        @Singleton
+        @Named("c")
+        String provideC(final CharSequence b) {
+            CREATED.add("c");
+            return b + "c";
+        }
+
+        @Provides
+        @Singleton
+        Integer provideIndependent() {
+            CREATED.add("d");
+            return 1;
+        }
+    }
+
+    @Named("c")
+    static class Holder {
+    }
+}
@@ -0,0 +1,112 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.inject.Provider;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ExpiringSingletonScopingFactoryTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Test
+    public void testRebuiltAfterExpiry() throws Exception {
+        final Provider<Integer> provider = newProvider("provideBuffer", Runnable::run);
+        Assert.assertEquals(Integer.valueOf(1), provider.get());
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(99));
+        Assert.assertEquals(Integer.valueOf(1), provider.get());
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        Assert.assertEquals(Integer.valueOf(2), provider.get());
+        Assert.assertEquals(Integer.valueOf(2), provider.get());
+    }
+
+    @Test
+    public void testRefreshAhead() throws Exception {
+        final List<Runnable> refreshes = new ArrayList<>();
+        final Provider<Integer> provider = newProvider("provideRefreshed", refreshes::add);
+        Assert.assertEquals(Integer.valueOf(1), provider.get());
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(499));
+        Assert.assertEquals(Integer.valueOf(1), provider.get());
+        Assert.assertTrue(refreshes.isEmpty());
+        // inside the refresh window, the current instance is returned while a single new one is built.
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(101));
+        Assert.assertEquals(Integer.valueOf(1), provider.get());
+        Assert.assertEquals(Integer.valueOf(1), provider.get());
+        Assert.assertEquals(1, refreshes.size());
+        refreshes.get(0).run();
+        Assert.assertEquals(Integer.valueOf(2), provider.get());
+        Assert.assertEquals(2, created.get());
+    }
+
+    @Test
+    public void testRejectedRefreshIsRetried() throws Exception {
+        final List<Runnable> refreshes = new ArrayList<>();
+        final AtomicBoolean rejecting = new AtomicBoolean(true);
+        final Provider<Integer> provider = newProvider("provideRefreshed", (command) -> {
+            if (rejecting.get()) {
+                throw new RejectedExecutionException();
+            }
+            refreshes.add(command);
+        });
+        Assert.assertEquals(Integer.valueOf(1), provider.get());
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        Assert.assertEquals(Integer.valueOf(1), provider.get());
+        Assert.assertEquals(Integer.valueOf(1), provider.get());
+        rejecting.set(false);
+        Assert.assertEquals(Integer.valueOf(1), provider.get());
+        Assert.assertEquals(1, refreshes.size());
+        refreshes.get(0).run();
+        Assert.assertEquals(Integer.valueOf(2), provider.get());
+        // rejected until expiry, the caller rebuilds.
+        rejecting.set(true);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        Assert.assertEquals(Integer.valueOf(3), provider.get());
+    }
+
+    @Test
+    public void testScopedByInjector() {
+        final Injector injector = InjectionBuilder.newInjector(ModuleA.class);
+        Assert.assertSame(injector.getInstance(StringBuilder.class), injector.getInstance(StringBuilder.class));
+    }
+
+    @Test(expected = ScopeException.class)
+    public void testIllegalRefreshAhead() throws Exception {
+        newProvider("provideIllegal", Runnable::run);
+    }
+
+    private Provider<Integer> newProvider(final String methodName, final Executor refreshExecutor)
+            throws NoSuchMethodException {
+        final ExpiringSingleton annotation = ModuleA.class.getDeclaredMethod(methodName)
+                .getAnnotation(ExpiringSingleton.class);
+        return new ExpiringSingletonScopingFactory(refreshExecutor, clock::get).getScoping(annotation)
+                .scope(created::incrementAndGet);
+    }
+
+    static class ModuleA implements Module {
+        @Provides
+        @ExpiringSingleton(ttl = 100, unit = TimeUnit.MILLISECONDS)
+        StringBuilder provideBuffer() {
+            return new StringBuilder();
+        }
+
+        @Provides
+        @ExpiringSingleton(ttl = 1000, unit = TimeUnit.MILLISECONDS, refreshAhead = 500)
+        Integer provideRefreshed() {
+            return 1;
+        }
+
+        @ExpiringSingleton(ttl = 100, unit = TimeUnit.MILLISECONDS, refreshAhead = 100)
+        void provideIllegal() {
+        }
+    }
+}
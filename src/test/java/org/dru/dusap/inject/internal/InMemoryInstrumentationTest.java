@@ -0,0 +1,97 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+public class InMemoryInstrumentationTest {
+    @Test
+    public void testCountsProvisionsAndScopeHits() throws IOException {
+        final InMemoryInstrumentation instrumentation = new InMemoryInstrumentation();
+        final Injection injection = new InjectionBuilder().withInstrumentation(instrumentation).build();
+        final Injector injector = injection.getInjector(ModuleA.class);
+        for (int i = 0; i < 10; i++) {
+            injector.getInstance(String.class);
+            injector.getInstance(StringBuilder.class);
+        }
+        final InMemoryInstrumentation.Stats singleton = instrumentation.getStats(Key.of(String.class, null));
+        Assert.assertEquals(10, singleton.getRequests());
+        Assert.assertEquals(1, singleton.getProvisions());
+        Assert.assertEquals(9, singleton.getScopeHits());
+        Assert.assertEquals(1, singleton.getScopeMisses());
+        final InMemoryInstrumentation.Stats unscoped = instrumentation.getStats(Key.of(StringBuilder.class, null));
+        Assert.assertEquals(10, unscoped.getRequests());
+        Assert.assertEquals(10, unscoped.getProvisions());
+        Assert.assertEquals(0, unscoped.getScopeHits());
+        Assert.assertTrue(unscoped.getMaxNanos() > 0);
+        Assert.assertTrue(unscoped.getTotalNanos() >= unscoped.getMaxNanos());
+        if (instrumentation.isTrackingAllocations()) {
+            Assert.assertTrue(unscoped.getAllocatedBytes() >= 10 * 1024);
+        }
+        final StringBuilder dump = new StringBuilder();
+        injection.dumpInstrumentation(dump);
+        Assert.assertTrue(dump.toString().contains("provisions=10"));
+    }
+
+    @Test
+    public void testNestedProvisionsAreSubtracted() {
+        final InMemoryInstrumentation instrumentation = new InMemoryInstrumentation();
+        final Injector injector = new InjectionBuilder().withInstrumentation(instrumentation).build()
+                .getInjector(ModuleB.class);
+        Assert.assertEquals(1 << 20, injector.getInstance(Outer.class).inner.length);
+        final InMemoryInstrumentation.Stats outer = instrumentation.getStats(Key.of(Outer.class, null));
+        final InMemoryInstrumentation.Stats inner = instrumentation.getStats(Key.of(byte[].class, null));
+        Assert.assertTrue(inner.getTotalNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+        Assert.assertTrue(outer.getTotalNanos() < inner.getTotalNanos());
+        if (instrumentation.isTrackingAllocations()) {
+            Assert.assertTrue(inner.getAllocatedBytes() >= 1 << 20);
+            Assert.assertTrue(outer.getAllocatedBytes() < 1 << 20);
+        }
+    }
+
+    @Test
+    public void testNoopDumpsNothing() throws IOException {
+        final Injection injection = new InjectionBuilder().build();
+        injection.getInjector(ModuleA.class).getInstance(String.class);
+        final StringBuilder dump = new StringBuilder();
+        injection.dumpInstrumentation(dump);
+        Assert.assertEquals(0, dump.length());
+    }
+
+    static class ModuleA implements Module {
+        @Provides
+        @Singleton
+        String provideString() {
+            return "A";
+        }
+
+        @Provides
+        StringBuilder provideStringBuilder() {
+            return new StringBuilder(1024);
+        }
+    }
+
+    static class Outer {
+        @Inject
+        byte[] inner;
+    }
+
+    static class ModuleB implements Module {
+        @Provides
+        Outer provideOuter() {
+            return new Outer();
+        }
+
+        @Provides
+        byte[] provideInner() throws InterruptedException {
+            Thread.sleep(50);
+            return new byte[1 << 20];
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InjectionImplTest {
+    private static final AtomicInteger CONFIGURED = new AtomicInteger();
+    private static volatile CountDownLatch CONFIGURING;
+    private static volatile CountDownLatch RELEASE;
+
+    @Test
+    public void testConcurrentConfigurationHappensOnce() throws Exception {
+        CONFIGURED.set(0);
+        final Injection injection = new InjectionBuilder().build();
+        final int threads = 16;
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Injector>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    return injection.getInjector(ModuleB.class);
+                }));
+            }
+            final Injector injector = futures.get(0).get();
+            for (final Future<Injector> future : futures) {
+                Assert.assertSame(injector, future.get());
+            }
+            Assert.assertEquals(2, CONFIGURED.get());
+            Assert.assertEquals("A", injector.getInstance(String.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // a lookup of a configured injector takes no lock, not even while another module is being configured.
+    @Test
+    public void testGetInstanceDoesNotWaitForConfiguration() throws Exception {
+        final Injection injection = new InjectionBuilder().build();
+        final Injector injector = injection.getInjector(ModuleB.class);
+        CONFIGURING = new CountDownLatch(1);
+        RELEASE = new CountDownLatch(1);
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            final Future<Injector> blocked = executor.submit(() -> injection.getInjector(BlockingModule.class));
+            Assert.assertTrue(CONFIGURING.await(5, TimeUnit.SECONDS));
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 10000; j++) {
+                        Assert.assertEquals("A", injector.getInstance(String.class));
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+            Assert.assertFalse(blocked.isDone());
+            RELEASE.countDown();
+            Assert.assertNotNull(blocked.get(5, TimeUnit.SECONDS));
+        } finally {
+            RELEASE.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    static class ModuleA implements Module {
+        ModuleA() {
+            CONFIGURED.incrementAndGet();
+        }
+
+        @Provides
+        @Expose
+        String provideString() {
+            return "A";
+        }
+    }
+
+    @DependsOn(ModuleA.class)
+    static class ModuleB implements Module {
+        ModuleB() {
+            CONFIGURED.incrementAndGet();
+        }
+    }
+
+    static class BlockingModule implements Module {
+        BlockingModule() throws InterruptedException {
+            CONFIGURING.countDown();
+            RELEASE.await();
+        }
+    }
+}
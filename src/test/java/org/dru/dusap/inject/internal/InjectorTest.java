@@ -1,9 +1,14 @@
 package org.dru.dusap.inject.internal;
 
 import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
 import org.junit.Test;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class InjectorTest {
     @Test(expected = BindingException.class)
@@ -16,6 +21,58 @@ public class InjectorTest {
         InjectionBuilder.newInjector(ModuleD.class).getInstance(Dumper2.class);
     }
 
+    @Test
+    public void testResolvedBindingsInvalidated() {
+        final Injection injection = new InjectionBuilder().build();
+        final Injector injector = injection.getInjector(ModuleA.class);
+        try {
+            injector.getInstance(Integer.class);
+            Assert.fail();
+        } catch (final BindingException exc) {
+            // success
+        }
+        // cached negative lookup must not survive a new child injector.
+        injection.getInjector(ModuleE.class);
+        Assert.assertEquals(Integer.valueOf(1), injector.getInstance(Integer.class));
+        Assert.assertSame(injector.getInstance(String.class), injector.getInstance(String.class));
+    }
+
+
+    @Test
+    public void testInjectMembers() {
+        final Injector injector = InjectionBuilder.newInjector(ModuleE.class);
+        for (int i = 0; i < 2; i++) {
+            final Members members = new Members();
+            injector.injectMembers(members);
+            Assert.assertEquals("A", members.string);
+            Assert.assertEquals("A1", members.concatenated);
+        }
+    }
+
+    @Test
+    public void testProviderAndLazy() {
+        final Injector injector = InjectionBuilder.newInjector(ModuleF.class);
+        final Handles handles = injector.getInstance(Handles.class);
+        Assert.assertEquals(0, handles.counter.get());
+        Assert.assertEquals("1", handles.provider.get());
+        Assert.assertEquals("2", handles.provider.get());
+        Assert.assertEquals("3", handles.lazy.get());
+        Assert.assertEquals("3", handles.lazy.get());
+        Assert.assertEquals("A", handles.sourced.get());
+    }
+
+    @Test
+    public void testProviderAndLazyFields() throws NoSuchFieldException {
+        final Injector injector = InjectionBuilder.newInjector(ModuleF.class);
+        final HandleFields fields = new HandleFields();
+        injector.injectMembers(fields);
+        Assert.assertEquals("1", fields.provider.get());
+        Assert.assertEquals("2", fields.lazy.get());
+        Assert.assertEquals("2", fields.lazy.get());
+        fields.provider = null;
+        injector.injectField(fields, HandleFields.class.getDeclaredField("provider"));
+        Assert.assertEquals("3", fields.provider.get());
+    }
 
     static class ModuleA implements Module {
         @Provides
@@ -62,4 +119,69 @@ public class InjectorTest {
             System.out.println(string);
         }
     }
+
+    @DependsOn(ModuleA.class)
+    static class ModuleE implements Module {
+        @Provides
+        Integer getInteger() {
+            return 1;
+        }
+    }
+
+    static class BaseMembers {
+        @Inject
+        String string;
+    }
+
+    static class Members extends BaseMembers {
+        String concatenated;
+
+        @Inject
+        void concatenate(final Integer integer) {
+            // fields, super class ones included, are injected before methods.
+            concatenated = string + integer;
+        }
+    }
+
+    @DependsOn(ModuleA.class)
+    static class ModuleF implements Module {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Provides
+        @Named("counted")
+        String getCounted() {
+            return String.valueOf(counter.incrementAndGet());
+        }
+
+        @Provides
+        Handles getHandles(@Named("counted") final Provider<String> provider, @Named("counted") final Lazy<String> lazy,
+                           @Source(ModuleA.class) final Provider<String> sourced) {
+            return new Handles(counter, provider, lazy, sourced);
+        }
+    }
+
+    static class Handles {
+        final AtomicInteger counter;
+        final Provider<String> provider;
+        final Lazy<String> lazy;
+        final Provider<String> sourced;
+
+        Handles(final AtomicInteger counter, final Provider<String> provider, final Lazy<String> lazy,
+                final Provider<String> sourced) {
+            this.counter = counter;
+            this.provider = provider;
+            this.lazy = lazy;
+            this.sourced = sourced;
+        }
+    }
+
+    static class HandleFields {
+        @Inject
+        @Named("counted")
+        Provider<String> provider;
+
+        @Inject
+        @Named("counted")
+        Lazy<String> lazy;
+    }
 }
@@ -0,0 +1,114 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.InjectionException;
+import org.dru.dusap.inject.Invoker;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class InvokersTest {
+    @Test
+    public void testConstructor() throws Exception {
+        for (final Invokers invokers : Invokers.values()) {
+            final Invoker invoker = invokers.getConstructorInvoker(Target.class.getDeclaredConstructor(String.class));
+            Assert.assertEquals("a", ((Target) invoker.invoke(null, new Object[]{"a"})).value);
+        }
+    }
+
+    @Test
+    public void testMethod() throws Exception {
+        for (final Invokers invokers : Invokers.values()) {
+            final Target target = new Target("a");
+            final Invoker concat = invokers.getMethodInvoker(Target.class.getDeclaredMethod("concat", String.class,
+                    int.class));
+            Assert.assertEquals("ab1", concat.invoke(target, new Object[]{"b", 1}));
+            final Invoker twice = invokers.getMethodInvoker(Target.class.getDeclaredMethod("twice", int.class));
+            Assert.assertEquals(4, twice.invoke(null, new Object[]{2}));
+            final Invoker clear = invokers.getMethodInvoker(Target.class.getDeclaredMethod("clear"));
+            Assert.assertNull(clear.invoke(target, new Object[0]));
+            Assert.assertNull(target.value);
+        }
+    }
+
+    @Test
+    public void testUncheckedFailurePassesThrough() throws Exception {
+        for (final Invokers invokers : Invokers.values()) {
+            final Invoker fail = invokers.getMethodInvoker(Target.class.getDeclaredMethod("fail"));
+            try {
+                fail.invoke(new Target("a"), new Object[0]);
+                Assert.fail();
+            } catch (final IllegalStateException exc) {
+                Assert.assertEquals("fail", exc.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testCheckedFailureIsWrapped() throws Exception {
+        for (final Invokers invokers : Invokers.values()) {
+            final Invoker fail = invokers.getMethodInvoker(Target.class.getDeclaredMethod("failChecked"));
+            try {
+                fail.invoke(new Target("a"), new Object[0]);
+                Assert.fail();
+            } catch (final InjectionException exc) {
+                Assert.assertTrue(exc.getMessage().startsWith("failed to invoke method"));
+                Assert.assertTrue(exc.getCause() instanceof IOException);
+            }
+            final Invoker create = invokers.getConstructorInvoker(Target.class.getDeclaredConstructor());
+            try {
+                create.invoke(null, new Object[0]);
+                Assert.fail();
+            } catch (final InjectionException exc) {
+                Assert.assertTrue(exc.getMessage().startsWith("failed to create new instance"));
+                Assert.assertTrue(exc.getCause() instanceof IOException);
+            }
+        }
+    }
+
+    @Test
+    public void testFieldSetter() throws Exception {
+        for (final Invokers invokers : Invokers.values()) {
+            final Target target = new Target("a");
+            invokers.getFieldSetter(Target.class.getDeclaredField("value")).accept(target, "b");
+            Assert.assertEquals("b", target.value);
+            // final fields have no method handle setter and fall back to reflection.
+            invokers.getFieldSetter(Target.class.getDeclaredField("constant")).accept(target, "d");
+            Assert.assertEquals("d", target.constant);
+        }
+    }
+
+    static class Target {
+        private static int twice(final int value) {
+            return value * 2;
+        }
+
+        private String value;
+        private final String constant;
+
+        private Target(final String value) {
+            this.value = value;
+            constant = String.valueOf("c");
+        }
+
+        private Target() throws IOException {
+            throw new IOException("create");
+        }
+
+        private String concat(final String suffix, final int number) {
+            return value + suffix + number;
+        }
+
+        private void clear() {
+            value = null;
+        }
+
+        private void fail() {
+            throw new IllegalStateException("fail");
+        }
+
+        private void failChecked() throws IOException {
+            throw new IOException("fail");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.dru.dusap.inject.internal;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+public class JfrEventsTest {
+    private static final CountDownLatch STARTED = new CountDownLatch(1);
+
+    @Test
+    public void testEventsAreRecorded() throws Exception {
+        final List<RecordedEvent> events = record(() -> {
+            final Injector injector = InjectionBuilder.newInjector(EventModule.class);
+            Assert.assertEquals("value", injector.getInstance(String.class));
+            Assert.assertNull(((InjectorImpl) injector).lookupBinding(Key.of(Long.class, null)));
+        });
+        final RecordedEvent configured = getEvent(events, "org.dru.dusap.inject.ModuleConfigured");
+        Assert.assertEquals(EventModule.class.getName(), configured.getClass("moduleType").getName());
+        final RecordedEvent provisioned = getEvent(events, "org.dru.dusap.inject.BindingProvisioned");
+        Assert.assertTrue(provisioned.getString("key").contains(String.class.getName()));
+        Assert.assertEquals("SINGLETON", provisioned.getString("scope"));
+        Assert.assertTrue(events.stream().anyMatch((event) -> event.getEventType().getName()
+                .equals("org.dru.dusap.inject.BindingLookupMiss") && !event.getBoolean("found")));
+    }
+
+    @Test
+    public void testSingletonWaitIsRecorded() throws Exception {
+        final List<RecordedEvent> events = record(() -> {
+            final Injector injector = InjectionBuilder.newInjector(SlowModule.class);
+            final Thread thread = new Thread(() -> injector.getInstance(Integer.class));
+            thread.start();
+            STARTED.await();
+            Assert.assertEquals(Integer.valueOf(1), injector.getInstance(Integer.class));
+            thread.join();
+        });
+        Assert.assertTrue(getEvent(events, "org.dru.dusap.inject.SingletonWait").getString("provider")
+                .contains("provideInteger"));
+    }
+
+    private static List<RecordedEvent> record(final Action action) throws Exception {
+        final Path file = Files.createTempFile("injection", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (final String name : new String[]{"ModuleConfigured", "BindingProvisioned", "SingletonWait",
+                    "BindingLookupMiss"}) {
+                recording.enable("org.dru.dusap.inject." + name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static RecordedEvent getEvent(final List<RecordedEvent> events, final String name) {
+        final List<RecordedEvent> matching = events.stream()
+                .filter((event) -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+        Assert.assertFalse(name, matching.isEmpty());
+        return matching.get(0);
+    }
+
+    interface Action {
+        void run() throws Exception;
+    }
+
+    static class EventModule implements Module {
+        @Provides
+        @Singleton
+        String provideString() {
+            return "value";
+        }
+    }
+
+    static class SlowModule implements Module {
+        @Provides
+        @Singleton
+        Integer provideInteger() throws InterruptedException {
+            STARTED.countDown();
+            Thread.sleep(100);
+            return 1;
+        }
+    }
+}
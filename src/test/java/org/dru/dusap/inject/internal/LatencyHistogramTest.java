@@ -0,0 +1,33 @@
+package org.dru.dusap.inject.internal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+    @Test
+    public void testBucketsAreContiguous() {
+        for (long value = 0; value < 1 << 20; value++) {
+            final int index = LatencyHistogram.getIndex(value);
+            Assert.assertTrue(LatencyHistogram.getLowestEquivalentValue(index) <= value);
+            Assert.assertTrue(LatencyHistogram.getLowestEquivalentValue(index + 1) > value);
+        }
+        Assert.assertTrue(LatencyHistogram.getIndex(Long.MAX_VALUE) > LatencyHistogram.getIndex(Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1000);
+        }
+        Assert.assertEquals(10_000, histogram.getTotalCount());
+        Assert.assertEquals(10_000_000, histogram.getMax());
+        assertWithin(5_000_000, histogram.getValueAtPercentile(50));
+        assertWithin(9_900_000, histogram.getValueAtPercentile(99));
+        Assert.assertEquals(10_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    private static void assertWithin(final long expected, final long actual) {
+        Assert.assertTrue(expected + " ~ " + actual, Math.abs(expected - actual) <= expected / 16);
+    }
+}
@@ -1,6 +1,7 @@
 package org.dru.dusap.inject.internal;
 
 import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
 import org.junit.Test;
 
 import javax.inject.Inject;
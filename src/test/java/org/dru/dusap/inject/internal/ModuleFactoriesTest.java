@@ -0,0 +1,39 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ModuleFactoriesTest {
+    @Test
+    public void testGetModuleFactoryName() {
+        Assert.assertEquals("org.dru.dusap.inject.internal.ModuleFactoriesTest_ModuleA_ModuleFactory",
+                ModuleFactories.getModuleFactoryName(ModuleA.class));
+    }
+
+    @Test
+    public void testModuleFactoryIsUsed() {
+        final Injector injector = InjectionBuilder.newInjector(ModuleB.class);
+        // the hand written factory invokes the provider method with its own argument.
+        Assert.assertEquals("factory", injector.getInstance(String.class));
+        Assert.assertEquals(Integer.valueOf(1), injector.getInstance(Integer.class));
+        Assert.assertNull(ModuleFactories.getModuleFactoryOrNull(ModuleB.class));
+    }
+
+    static class ModuleA implements Module {
+        @Provides
+        @Expose
+        String provideString() {
+            return "reflection";
+        }
+    }
+
+    @DependsOn(ModuleA.class)
+    static class ModuleB implements Module {
+        @Provides
+        Integer provideInteger(final String value) {
+            return value.equals("factory") ? 1 : 0;
+        }
+    }
+}
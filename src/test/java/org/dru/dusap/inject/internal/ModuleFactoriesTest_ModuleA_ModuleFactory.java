@@ -0,0 +1,36 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.Invoker;
+import org.dru.dusap.inject.Module;
+import org.dru.dusap.inject.ModuleFactory;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+
+// written the way the annotation processor generates it, returning a marker instead of calling the module.
+public final class ModuleFactoriesTest_ModuleA_ModuleFactory implements ModuleFactory {
+    @Override
+    public List<Class<? extends Module>> getDependencyTypes() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Module newModule() {
+        return new ModuleFactoriesTest.ModuleA();
+    }
+
+    @Override
+    public List<Method> getProviderMethods() {
+        try {
+            return Collections.singletonList(ModuleFactoriesTest.ModuleA.class.getDeclaredMethod("provideString"));
+        } catch (final NoSuchMethodException exc) {
+            throw new IllegalStateException(exc);
+        }
+    }
+
+    @Override
+    public List<Invoker> getProviderInvokers() {
+        return Collections.singletonList((target, args) -> "factory");
+    }
+}
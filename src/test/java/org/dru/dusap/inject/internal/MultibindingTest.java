@@ -0,0 +1,223 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class MultibindingTest {
+    @Test
+    public void testSetCollectsExposedContributions() {
+        final Injector injector = InjectionBuilder.newInjector(RootModule.class);
+        final Set<Handler> handlers = injector.getInstance(Dispatcher.class).handlers;
+        Assert.assertEquals(Arrays.asList("root", "a", "b"), handlers.stream()
+                .map((handler) -> handler.name)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testSingletonContributionsAreCollectedOnce() {
+        final Injector injector = InjectionBuilder.newInjector(RootModule.class);
+        Assert.assertSame(injector.getInstance(Dispatcher.class).handlers,
+                injector.getInstance(Dispatcher.class).handlers);
+        Assert.assertNotSame(injector.getInstance(Dispatcher.class).names,
+                injector.getInstance(Dispatcher.class).names);
+    }
+
+    @Test
+    public void testMapCollectsEntries() {
+        final Injector injector = InjectionBuilder.newInjector(RootModule.class);
+        final Map<String, Integer> names = injector.getInstance(Dispatcher.class).names;
+        Assert.assertEquals(2, names.size());
+        Assert.assertEquals(Integer.valueOf(1), names.get("one"));
+        Assert.assertEquals(Integer.valueOf(2), names.get("two"));
+        Assert.assertNull(names.get("three"));
+        Assert.assertEquals(new HashMap<>(names), names);
+    }
+
+    @Test
+    public void testQualifiedContributionsAreSeparate() {
+        final Injector injector = InjectionBuilder.newInjector(RootModule.class);
+        Assert.assertEquals(Collections.singleton("qualified"), injector.getInstance(Dispatcher.class).qualified);
+    }
+
+    @Test
+    public void testSetAskedForDuringConstructionIsNotCached() {
+        final Injector injector = InjectionBuilder.newInjector(EagerModule.class);
+        Assert.assertEquals("eager,a", injector.getInstance(String.class));
+    }
+
+    @Test(expected = BindingException.class)
+    public void testDuplicateMapKeyFails() {
+        InjectionBuilder.newInjector(DuplicateKeyModule.class).getInstance(Dispatcher.class);
+    }
+
+    @Test(expected = BindingException.class)
+    public void testIntoMapRequiresEntry() {
+        InjectionBuilder.newInjector(IllegalMapModule.class);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSetIsImmutable() {
+        InjectionBuilder.newInjector(RootModule.class).getInstance(Dispatcher.class).handlers.add(new Handler("c"));
+    }
+
+    @Test
+    public void testArraySetIndexesManyElements() {
+        final Object[] elements = IntStream.range(0, 100).map((value) -> value % 50).boxed().toArray();
+        final ArraySet<Integer> set = new ArraySet<>(new ArrayIndex(elements));
+        Assert.assertEquals(50, set.size());
+        Assert.assertEquals(IntStream.range(0, 50).boxed().collect(Collectors.toSet()), set);
+        Assert.assertTrue(set.contains(49));
+        Assert.assertFalse(set.contains(50));
+        Assert.assertFalse(set.contains(null));
+        Assert.assertEquals(new HashSet<>(set).hashCode(), set.hashCode());
+    }
+
+    @Test
+    public void testArrayMapIndexesManyKeys() {
+        final Object[] keys = IntStream.range(0, 20).mapToObj(String::valueOf).toArray();
+        final Object[] values = IntStream.range(0, 20).boxed().toArray();
+        final ArrayMap<String, Integer> map = new ArrayMap<>(new ArrayIndex(keys), values);
+        Assert.assertEquals(20, map.size());
+        Assert.assertEquals(Integer.valueOf(17), map.get("17"));
+        Assert.assertFalse(map.containsKey("20"));
+        final Map<String, Integer> copy = new LinkedHashMap<>();
+        map.forEach(copy::put);
+        Assert.assertEquals(copy, map);
+        Assert.assertEquals(new ArrayList<>(copy.keySet()), new ArrayList<>(map.keySet()));
+    }
+
+    static final class Handler {
+        private final String name;
+
+        Handler(final String name) {
+            this.name = name;
+        }
+    }
+
+    static final class Dispatcher {
+        private final Set<Handler> handlers;
+        private final Map<String, Integer> names;
+        private final Set<String> qualified;
+
+        Dispatcher(final Set<Handler> handlers, final Map<String, Integer> names, final Set<String> qualified) {
+            this.handlers = handlers;
+            this.names = names;
+            this.qualified = qualified;
+        }
+    }
+
+    static class PluginModuleA implements Module {
+        @Provides
+        @Expose
+        @IntoSet
+        @Singleton
+        Handler provideHandler() {
+            return new Handler("a");
+        }
+
+        @Provides
+        @IntoSet
+        @Singleton
+        Handler provideHiddenHandler() {
+            return new Handler("hidden");
+        }
+
+        @Provides
+        @Expose
+        @IntoMap
+        Map.Entry<String, Integer> provideOne() {
+            return new AbstractMap.SimpleImmutableEntry<>("one", 1);
+        }
+    }
+
+    static class PluginModuleB implements Module {
+        @Provides
+        @Expose
+        @IntoSet
+        @Singleton
+        Handler provideHandler() {
+            return new Handler("b");
+        }
+
+        @Provides
+        @Expose
+        @IntoMap
+        Map.Entry<String, Integer> provideTwo() {
+            return new AbstractMap.SimpleImmutableEntry<>("two", 2);
+        }
+
+        @Provides
+        @Expose
+        @IntoSet
+        @Named("qualified")
+        String provideQualified() {
+            return "qualified";
+        }
+    }
+
+    @DependsOn({PluginModuleA.class, PluginModuleB.class})
+    static class RootModule implements Module {
+        @Provides
+        @IntoSet
+        @Singleton
+        Handler provideHandler() {
+            return new Handler("root");
+        }
+
+        @Provides
+        Dispatcher provideDispatcher(final Set<Handler> handlers, final Map<String, Integer> names,
+                                     @Named("qualified") final Set<String> qualified) {
+            return new Dispatcher(handlers, names, qualified);
+        }
+    }
+
+    @DependsOn(PluginModuleA.class)
+    static class EagerModule implements Module {
+        @Inject
+        EagerModule(final Set<Handler> handlers) {
+            Assert.assertEquals(1, handlers.size());
+        }
+
+        @Provides
+        @IntoSet
+        Handler provideHandler() {
+            return new Handler("eager");
+        }
+
+        @Provides
+        String provideNames(final Set<Handler> handlers) {
+            return handlers.stream().map((handler) -> handler.name).collect(Collectors.joining(","));
+        }
+    }
+
+    @DependsOn(PluginModuleA.class)
+    static class DuplicateKeyModule implements Module {
+        @Provides
+        @IntoMap
+        Map.Entry<String, Integer> provideOne() {
+            return new AbstractMap.SimpleImmutableEntry<>("one", 1);
+        }
+
+        @Provides
+        Dispatcher provideDispatcher(final Map<String, Integer> names) {
+            return new Dispatcher(Collections.emptySet(), names, Collections.emptySet());
+        }
+    }
+
+    static class IllegalMapModule implements Module {
+        @Provides
+        @IntoMap
+        String provideString() {
+            return "illegal";
+        }
+    }
+}
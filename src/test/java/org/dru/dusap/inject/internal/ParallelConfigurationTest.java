@@ -0,0 +1,168 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelConfigurationTest {
+    private static final long DELAY_MILLIS = 200;
+    private static final AtomicInteger BASE_CONFIGURATIONS = new AtomicInteger();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testIndependentModulesOverlap() {
+        final Injection injection = new InjectionBuilder().withParallelConfiguration(executor).build();
+        BASE_CONFIGURATIONS.set(0);
+        final long start = System.nanoTime();
+        final Injector injector = injection.getInjector(RootModule.class);
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 3 * DELAY_MILLIS);
+        Assert.assertEquals("base:a:b:c", injector.getInstance(String.class));
+        Assert.assertEquals(1, BASE_CONFIGURATIONS.get());
+    }
+
+    @Test
+    public void testSameBindingsAsSequential() {
+        final Injection parallel = new InjectionBuilder().withParallelConfiguration(executor).build();
+        final Injection sequential = new InjectionBuilder().build();
+        parallel.getInjector(RootModule.class);
+        sequential.getInjector(RootModule.class);
+        Assert.assertEquals(sequential.getBindings().size(), parallel.getBindings().size());
+        Assert.assertEquals(sequential.getInjector(RootModule.class).getInstance(String.class),
+                parallel.getInjector(RootModule.class).getInstance(String.class));
+    }
+
+    @Test
+    public void testModuleFactoriesAreUsed() {
+        final Injection injection = new InjectionBuilder().withParallelConfiguration(executor).build();
+        final Injector injector = injection.getInjector(ModuleFactoriesTest.ModuleB.class);
+        Assert.assertEquals("factory", injector.getInstance(String.class));
+        Assert.assertEquals(Integer.valueOf(1), injector.getInstance(Integer.class));
+    }
+
+    @Test
+    public void testFailuresAreCollected() {
+        final Injection injection = new InjectionBuilder().withParallelConfiguration(executor).build();
+        try {
+            injection.getInjector(FailingRootModule.class);
+            Assert.fail();
+        } catch (final InjectionException exc) {
+            Assert.assertEquals(1, exc.getSuppressed().length);
+            Assert.assertTrue(exc.getMessage().contains("2 module(s)"));
+        }
+        // the branch that did not fail is configured all the same.
+        Assert.assertEquals("base:c", injection.getInjector(ModuleC.class).getInstance(String.class));
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(DELAY_MILLIS);
+        } catch (final InterruptedException exc) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static class BaseModule implements Module {
+        @Inject
+        void init() {
+            BASE_CONFIGURATIONS.incrementAndGet();
+        }
+
+        @Provides
+        @Expose
+        @Named("base")
+        String provideBase() {
+            return "base";
+        }
+    }
+
+    @DependsOn(BaseModule.class)
+    static class ModuleA implements Module {
+        @Inject
+        void init() {
+            sleep();
+        }
+
+        @Provides
+        @Expose
+        @Named("a")
+        String provideA(@Named("base") final String base) {
+            return base + ":a";
+        }
+    }
+
+    @DependsOn(BaseModule.class)
+    static class ModuleB implements Module {
+        @Inject
+        void init() {
+            sleep();
+        }
+
+        @Provides
+        @Expose
+        @Named("b")
+        String provideB() {
+            return "b";
+        }
+    }
+
+    @DependsOn(BaseModule.class)
+    static class ModuleC implements Module {
+        @Inject
+        void init() {
+            sleep();
+        }
+
+        @Provides
+        @Expose
+        @Named("c")
+        String provideC() {
+            return "c";
+        }
+
+        @Provides
+        String provideString(@Named("base") final String base) {
+            return base + ":c";
+        }
+    }
+
+    @DependsOn({ModuleA.class, ModuleB.class, ModuleC.class})
+    static class RootModule implements Module {
+        @Provides
+        String provideString(@Named("a") final String a, @Named("b") final String b, @Named("c") final String c) {
+            return a + ":" + b + ":" + c;
+        }
+    }
+
+    static class FailingModuleA implements Module {
+        @Inject
+        void init() {
+            throw new IllegalStateException("failing a");
+        }
+    }
+
+    static class FailingModuleB implements Module {
+        @Inject
+        void init() {
+            throw new IllegalStateException("failing b");
+        }
+    }
+
+    @DependsOn({FailingModuleA.class, ModuleC.class, FailingModuleB.class})
+    static class FailingRootModule implements Module {
+    }
+}
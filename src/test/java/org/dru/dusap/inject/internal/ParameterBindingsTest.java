@@ -0,0 +1,71 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+
+public class ParameterBindingsTest {
+    @Test
+    public void testResolvedAgainInNewGeneration() throws Exception {
+        final InjectionImpl injection = (InjectionImpl) new InjectionBuilder().build();
+        final InjectorImpl child = (InjectorImpl) injection.getInjector(ParentModule.class)
+                .newInjector(ChildModule.class);
+        Assert.assertEquals("parent", child.getInstance(String.class));
+        // the parameter of provideString gets a binding of its own after it was resolved against the parent.
+        child.bindProviderMethods(new LateModuleFactory(ChildModule.class.getDeclaredMethod("provideLateObject")));
+        injection.invalidateResolutions();
+        Assert.assertEquals("child", child.getInstance(String.class));
+    }
+
+    static class ParentModule implements Module {
+        @Provides
+        @Expose
+        Object provideObject() {
+            return "parent";
+        }
+    }
+
+    static class ChildModule implements Module {
+        @Provides
+        String provideString(final Object value) {
+            return value.toString();
+        }
+
+        Object provideLateObject() {
+            return "child";
+        }
+    }
+
+    static final class LateModuleFactory implements ModuleFactory {
+        private final Method method;
+
+        LateModuleFactory(final Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public List<Class<? extends Module>> getDependencyTypes() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Module newModule() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Method> getProviderMethods() {
+            return Collections.singletonList(method);
+        }
+
+        @Override
+        public List<Invoker> getProviderInvokers() {
+            return Collections.singletonList(Invokers.REFLECTION.getMethodInvoker(method));
+        }
+    }
+}
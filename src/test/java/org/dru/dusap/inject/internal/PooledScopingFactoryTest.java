@@ -0,0 +1,70 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.inject.Provider;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PooledScopingFactoryTest {
+    private static final AtomicInteger CREATED = new AtomicInteger();
+
+    @Test
+    public void testLeasedInstancesReused() {
+        CREATED.set(0);
+        final Leases leases = InjectionBuilder.newInjector(ModuleA.class).getInstance(Leases.class);
+        final StringBuilder first;
+        try (Lease<StringBuilder> lease = leases.provider.get()) {
+            first = lease.get();
+            Assert.assertSame(first, lease.get());
+        }
+        try (Lease<StringBuilder> lease = leases.provider.get()) {
+            Assert.assertSame(first, lease.get());
+        }
+        Assert.assertEquals(1, CREATED.get());
+    }
+
+    @Test
+    public void testPoolBounded() {
+        CREATED.set(0);
+        final Leases leases = InjectionBuilder.newInjector(ModuleA.class).getInstance(Leases.class);
+        final Lease<StringBuilder> a = leases.provider.get();
+        final Lease<StringBuilder> b = leases.provider.get();
+        final Lease<StringBuilder> c = leases.provider.get();
+        Assert.assertNotSame(a.get(), b.get());
+        Assert.assertNotSame(b.get(), c.get());
+        a.close();
+        b.close();
+        c.close();
+        Assert.assertEquals(3, CREATED.get());
+        // only two idle instances are kept.
+        leases.provider.get().get();
+        leases.provider.get().get();
+        leases.provider.get().get();
+        Assert.assertEquals(4, CREATED.get());
+    }
+
+    static class ModuleA implements Module {
+        @Provides
+        @Pooled(max = 2)
+        StringBuilder provideBuffer() {
+            CREATED.incrementAndGet();
+            return new StringBuilder();
+        }
+
+        @Provides
+        Leases provideLeases(final Provider<Lease<StringBuilder>> provider) {
+            return new Leases(provider);
+        }
+    }
+
+    static class Leases {
+        final Provider<Lease<StringBuilder>> provider;
+
+        Leases(final Provider<Lease<StringBuilder>> provider) {
+            this.provider = provider;
+        }
+    }
+}
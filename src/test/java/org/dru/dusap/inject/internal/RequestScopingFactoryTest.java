@@ -0,0 +1,131 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class RequestScopingFactoryTest {
+    @Test
+    public void testInstancePerScope() {
+        final Injection injection = new InjectionBuilder().build();
+        final Injector injector = injection.getInjector(ModuleA.class);
+        final StringBuilder first;
+        final ScopeContext scope = injection.openScope();
+        try {
+            first = injector.getInstance(StringBuilder.class);
+            Assert.assertSame(first, injector.getInstance(StringBuilder.class));
+            Assert.assertNull(injector.getInstance(Integer.class));
+        } finally {
+            scope.close();
+        }
+        final ScopeContext next = injection.openScope();
+        try {
+            Assert.assertNotSame(first, injector.getInstance(StringBuilder.class));
+        } finally {
+            next.close();
+        }
+    }
+
+    @Test
+    public void testNestedScopes() {
+        final Injection injection = new InjectionBuilder().build();
+        final Injector injector = injection.getInjector(ModuleA.class);
+        final ScopeContext scope = injection.openScope();
+        try {
+            final StringBuilder outer = injector.getInstance(StringBuilder.class);
+            final ScopeContext nested = injection.openScope();
+            try {
+                Assert.assertNotSame(outer, injector.getInstance(StringBuilder.class));
+            } finally {
+                nested.close();
+            }
+            Assert.assertSame(outer, injector.getInstance(StringBuilder.class));
+        } finally {
+            scope.close();
+        }
+    }
+
+    @Test
+    public void testStorageGrownByNestedProvision() {
+        final Injection injection = new InjectionBuilder().build();
+        final Injector injector = injection.getInjector(ModuleB.class);
+        final ScopeContext scope = injection.openScope();
+        try {
+            // the nested provision scopes a binding made after the scope was opened.
+            final Object outer = injector.getInstance(Object.class);
+            Assert.assertSame(outer, injector.getInstance(Object.class));
+        } finally {
+            scope.close();
+        }
+    }
+
+    @Test
+    public void testScopeCarriedToAnotherThread() throws Exception {
+        final Injection injection = new InjectionBuilder().build();
+        final Injector injector = injection.getInjector(ModuleA.class);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final ScopeContext outer = injection.openScope();
+            final StringBuilder outerInstance = injector.getInstance(StringBuilder.class);
+            final ScopeContext inner = injection.openScope();
+            final StringBuilder innerInstance = injector.getInstance(StringBuilder.class);
+            final ScopeContext own = executor.submit(injection::openScope).get();
+            final StringBuilder ownInstance = executor.submit(() -> injector.getInstance(StringBuilder.class)).get();
+            executor.submit(() -> {
+                inner.enter();
+                Assert.assertSame(innerInstance, injector.getInstance(StringBuilder.class));
+                inner.exit();
+                Assert.assertSame(ownInstance, injector.getInstance(StringBuilder.class));
+                inner.enter();
+            }).get();
+            inner.close();
+            Assert.assertSame(outerInstance, injector.getInstance(StringBuilder.class));
+            // closed on the main thread, the other thread is back in its own scope.
+            Assert.assertSame(ownInstance, executor.submit(() -> injector.getInstance(StringBuilder.class)).get());
+            executor.submit(own::close).get();
+            outer.close();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = ScopeException.class)
+    public void testReplacedFactoryCannotOpenScopes() {
+        final ScopingFactoryRegistry registry = new ScopingFactoryRegistry();
+        registry.registerScopingFactory(RequestScoped.class, (annotation) -> Scopings.NO_SCOPING);
+        new InjectionImpl(registry, Invokers.METHOD_HANDLE, null, null, null, TimeUnit.SECONDS.toNanos(1),
+                Instrumentations.NOOP, null, Tracers.NOOP).openScope();
+    }
+
+    @Test(expected = ScopeException.class)
+    public void testOutsideScopeFails() {
+        InjectionBuilder.newInjector(ModuleA.class).getInstance(StringBuilder.class);
+    }
+
+    static class ModuleA implements Module {
+        @Provides
+        @RequestScoped
+        StringBuilder provideBuffer() {
+            return new StringBuilder();
+        }
+
+        @Provides
+        @RequestScoped
+        Integer provideNull() {
+            return null;
+        }
+    }
+
+    static class ModuleB implements Module {
+        @Provides
+        @RequestScoped
+        Object provideObject(final Injector injector) {
+            return injector.newInjector(ModuleA.class).getInstance(StringBuilder.class);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.dru.dusap.inject.internal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.inject.Provider;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ScopingsTest {
+    @Test
+    public void testSingletonCreatedOnceUnderContention() throws Exception {
+        final int threads = 32;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 20; round++) {
+                final AtomicInteger created = new AtomicInteger();
+                final Provider<Object> singleton = Scopings.SINGLETON.scope(() -> {
+                    created.incrementAndGet();
+                    Thread.yield();
+                    return new Object();
+                });
+                final CyclicBarrier barrier = new CyclicBarrier(threads);
+                final List<Future<Object>> futures = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    futures.add(executor.submit(() -> {
+                        barrier.await();
+                        return singleton.get();
+                    }));
+                }
+                final Object instance = futures.get(0).get();
+                for (final Future<Object> future : futures) {
+                    Assert.assertSame(instance, future.get());
+                }
+                Assert.assertEquals(1, created.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSingletonNull() {
+        final AtomicInteger created = new AtomicInteger();
+        final Provider<Object> singleton = Scopings.SINGLETON.scope(() -> {
+            created.incrementAndGet();
+            return null;
+        });
+        Assert.assertNull(singleton.get());
+        Assert.assertNull(singleton.get());
+        Assert.assertEquals(1, created.get());
+    }
+}
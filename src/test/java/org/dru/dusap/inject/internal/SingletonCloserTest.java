@@ -0,0 +1,242 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class SingletonCloserTest {
+    private static final List<String> CLOSED = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testDependantsCloseFirst() {
+        CLOSED.clear();
+        final Injection injection = new InjectionBuilder().build();
+        final Injector injector = injection.getInjector(ModuleB.class);
+        Assert.assertNotNull(injector.getInstance(Service.class));
+        injection.close();
+        injection.close();
+        Assert.assertEquals(3, CLOSED.size());
+        Assert.assertEquals("service", CLOSED.get(0));
+        Assert.assertTrue(CLOSED.indexOf("service") < CLOSED.indexOf("resource"));
+        Assert.assertTrue(CLOSED.contains("other"));
+    }
+
+    @Test
+    public void testChildSingletonsCloseBeforeParents() {
+        CLOSED.clear();
+        final Injection injection = new InjectionBuilder().build();
+        final Injector child = injection.getInjector(ModuleA.class).newInjector(ChildModule.class);
+        Assert.assertNotNull(child.getInstance(Service.class));
+        injection.close();
+        Assert.assertEquals(Arrays.asList("service", "resource"), CLOSED);
+    }
+
+    @Test
+    public void testMemberDependantsCloseFirst() {
+        CLOSED.clear();
+        final Injection injection = new InjectionBuilder().build();
+        Assert.assertNotNull(injection.getInjector(ModuleE.class).getInstance(Client.class).resource);
+        injection.close();
+        Assert.assertEquals(Arrays.asList("client", "resource"), CLOSED);
+    }
+
+    @Test
+    public void testHandleDependantsCloseFirst() {
+        CLOSED.clear();
+        final Injection injection = new InjectionBuilder().build();
+        Assert.assertNotNull(injection.getInjector(ModuleE.class).getInstance(Holder.class).provider.get());
+        injection.close();
+        Assert.assertEquals(Arrays.asList("holder", "resource"), CLOSED);
+    }
+
+    @Test
+    public void testUncreatedSingletonsAreNotCreated() {
+        CLOSED.clear();
+        final Injection injection = new InjectionBuilder().build();
+        injection.getInjector(ModuleB.class);
+        injection.close();
+        Assert.assertTrue(CLOSED.isEmpty());
+    }
+
+    @Test(expected = InjectionException.class)
+    public void testClosedInjectionConfiguresNothing() {
+        final Injection injection = new InjectionBuilder().build();
+        injection.close();
+        injection.getInjector(ModuleA.class);
+    }
+
+    @Test
+    public void testFailuresAreCollected() {
+        final Injection injection = new InjectionBuilder().build();
+        final Injector injector = injection.getInjector(ModuleC.class);
+        injector.getInstance(Failing.class);
+        injector.getInstance(Integer.class);
+        injector.getInstance(AutoCloseable.class);
+        try {
+            injection.close();
+            Assert.fail();
+        } catch (final InjectionException exc) {
+            Assert.assertEquals(1, exc.getSuppressed().length);
+        }
+    }
+
+    @Test
+    public void testTimeout() {
+        final Injection injection = new InjectionBuilder().withClose(null, 50, TimeUnit.MILLISECONDS).build();
+        injection.getInjector(ModuleD.class).getInstance(Slow.class);
+        final long start = System.nanoTime();
+        injection.close();
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface PreDestroy {
+    }
+
+    static class Resource implements AutoCloseable {
+        @Override
+        public void close() {
+            CLOSED.add("resource");
+        }
+    }
+
+    static class Service {
+        Service(final Resource resource) {
+        }
+
+        @PreDestroy
+        void stop() {
+            CLOSED.add("service");
+        }
+    }
+
+    static class Client {
+        @Inject
+        Resource resource;
+
+        @PreDestroy
+        void stop() throws InterruptedException {
+            // unordered, the resource would be closed while the client is still stopping.
+            Thread.sleep(50);
+            CLOSED.add("client");
+        }
+    }
+
+    static class Holder {
+        final Provider<Resource> provider;
+
+        Holder(final Provider<Resource> provider) {
+            this.provider = provider;
+        }
+
+        @PreDestroy
+        void stop() throws InterruptedException {
+            Thread.sleep(50);
+            CLOSED.add("holder");
+        }
+    }
+
+    static class Failing implements AutoCloseable {
+        @Override
+        public void close() {
+            throw new IllegalStateException("failing");
+        }
+    }
+
+    static class Slow {
+        @PreDestroy
+        void stop() throws InterruptedException {
+            Thread.sleep(5000);
+        }
+    }
+
+    static class ModuleA implements Module {
+        @Provides
+        @Expose
+        @Singleton
+        Resource provideResource() {
+            return new Resource();
+        }
+
+        @Provides
+        @Expose
+        @Singleton
+        AutoCloseable provideOther() {
+            return () -> CLOSED.add("other");
+        }
+    }
+
+    @DependsOn(ModuleA.class)
+    static class ModuleB implements Module {
+        @Provides
+        @Expose
+        @Singleton
+        Service provideService(final Resource resource, final AutoCloseable other) {
+            return new Service(resource);
+        }
+    }
+
+    static class ChildModule implements Module {
+        @Provides
+        @Singleton
+        Service provideService(final Resource resource) {
+            return new Service(resource);
+        }
+    }
+
+    static class ModuleC implements Module {
+        @Provides
+        @Singleton
+        Failing provideFailing() {
+            return new Failing();
+        }
+
+        @Provides
+        @Singleton
+        Integer provideInteger() {
+            return 1;
+        }
+
+        @Provides
+        @Singleton
+        AutoCloseable provideFailingToo() {
+            return () -> {
+                throw new IllegalStateException("failing too");
+            };
+        }
+    }
+
+    static class ModuleD implements Module {
+        @Provides
+        @Singleton
+        Slow provideSlow() {
+            return new Slow();
+        }
+    }
+
+    @DependsOn(ModuleA.class)
+    static class ModuleE implements Module {
+        @Provides
+        @Singleton
+        Client provideClient() {
+            return new Client();
+        }
+
+        @Provides
+        @Singleton
+        Holder provideHolder(final Provider<Resource> provider) {
+            return new Holder(provider);
+        }
+    }
+}
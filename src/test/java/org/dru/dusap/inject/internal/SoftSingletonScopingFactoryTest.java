@@ -0,0 +1,60 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.inject.Provider;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SoftSingletonScopingFactoryTest {
+    private final List<Reference<Object>> references = new ArrayList<>();
+    private final SoftSingletonScopingFactory factory = new SoftSingletonScopingFactory((instance) -> {
+        final Reference<Object> reference = new SoftReference<>(instance);
+        references.add(reference);
+        return reference;
+    });
+
+    @Test
+    public void testRecreatedOnceReclaimed() {
+        final Provider<Object> provider = factory.scope(Object::new);
+        final Object first = provider.get();
+        Assert.assertSame(first, provider.get());
+        // what the collector does to softly reachable instances when it runs short of memory.
+        references.forEach(Reference::clear);
+        final Object second = provider.get();
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(second, provider.get());
+    }
+
+    @Test
+    public void testNullIsKept() {
+        final AtomicInteger provided = new AtomicInteger();
+        final Provider<Object> provider = factory.scope(() -> {
+            provided.incrementAndGet();
+            return null;
+        });
+        Assert.assertNull(provider.get());
+        Assert.assertNull(provider.get());
+        Assert.assertEquals(1, provided.get());
+    }
+
+    @Test
+    public void testScopedByInjector() {
+        final Injector injector = InjectionBuilder.newInjector(ModuleA.class);
+        Assert.assertSame(injector.getInstance(Object.class), injector.getInstance(Object.class));
+    }
+
+    static class ModuleA implements Module {
+        @Provides
+        @SoftSingleton
+        Object provideObject() {
+            return new Object();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.dru.dusap.inject.internal;
+
+import org.dru.dusap.inject.*;
+import org.dru.dusap.inject.Module;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ThreadScopingFactoryTest {
+    @Test
+    public void testInstancePerThread() throws Exception {
+        final Injector injector = InjectionBuilder.newInjector(ModuleA.class);
+        final StringBuilder local = injector.getInstance(StringBuilder.class);
+        Assert.assertSame(local, injector.getInstance(StringBuilder.class));
+        Assert.assertNull(injector.getInstance(Integer.class));
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final StringBuilder other = executor.submit(() -> injector.getInstance(StringBuilder.class)).get();
+            Assert.assertNotSame(local, other);
+            Assert.assertSame(other, executor.submit(() -> injector.getInstance(StringBuilder.class)).get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInstancesReleasedOnClose() throws Exception {
+        final Injection injection = new InjectionBuilder().build();
+        final Injector injector = injection.getInjector(ModuleA.class);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final WeakReference<StringBuilder> ref = new WeakReference<>(executor.submit(
+                    () -> injector.getInstance(StringBuilder.class)).get());
+            injection.close();
+            for (int i = 0; i < 50 && ref.get() != null; i++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+            // the pooled thread outlives the injection, its instance does not.
+            Assert.assertNull(ref.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static class ModuleA implements Module {
+        @Provides
+        @ThreadScoped
+        StringBuilder provideBuffer() {
+            return new StringBuilder();
+        }
+
+        @Provides
+        @ThreadScoped
+        Integer provideNull() {
+            return null;
+        }
+    }
+}